@@ -2,8 +2,10 @@ package edu.EAM.admin.Admin;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling  // Tareas periódicas (barrido de buckets del limitador)
 public class AdminApplication {
 
 	public static void main(String[] args) {
@@ -1,6 +1,7 @@
 package edu.EAM.admin.Admin.controller;
 
 import edu.EAM.admin.Admin.model.Admin;
+import edu.EAM.admin.Admin.model.BulkResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -40,6 +41,36 @@ public class AdminController {
         return new ResponseEntity<>(service.findByName(name), HttpStatus.OK);
     }
 
+    @Operation(summary = "Obtener varios administradores por ID", description = "Una sola consulta; los IDs inexistentes se omiten")
+    @ApiResponse(responseCode = "200", description = "Usuarios encontrados")
+    @GetMapping("/bulk")
+    public ResponseEntity<List<Admin>> getAdminsByIds(@RequestParam List<String> ids) {
+        return new ResponseEntity<>(service.findAllById(ids), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Obtener varios administradores por ID (lista en el cuerpo)", description = "Para listas de IDs que no caben en la URL")
+    @ApiResponse(responseCode = "200", description = "Usuarios encontrados")
+    @PostMapping("/bulk/get")
+    public ResponseEntity<List<Admin>> getAdminsByIdsInBody(@RequestBody List<String> ids) {
+        return new ResponseEntity<>(service.findAllById(ids), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Crear o actualizar administradores en bloque",
+            description = "Con un ID existente se reemplaza el administrador; sin ID o con uno que no existe se crea "
+                    + "con ese ID. Devuelve el resultado de cada elemento")
+    @ApiResponse(responseCode = "200", description = "Resultado por elemento (creado, actualizado o error)")
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkResult>> saveAdmins(@RequestBody List<Admin> admins) {
+        return new ResponseEntity<>(service.saveAll(admins), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Eliminar administradores en bloque")
+    @ApiResponse(responseCode = "200", description = "Resultado por elemento (eliminado, no_encontrado o error)")
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<List<BulkResult>> deleteAdmins(@RequestBody List<String> ids) {
+        return new ResponseEntity<>(service.deleteAllById(ids), HttpStatus.OK);
+    }
+
     @Operation(summary = "Obtener administrador por ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Administrador encontrado"),
@@ -78,11 +109,18 @@ public class AdminController {
     @Operation(summary = "Actualizar parcialmente un administrador")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Administrador actualizado parcialmente"),
+            @ApiResponse(responseCode = "400", description = "Campos o tipos no válidos en el patch"),
             @ApiResponse(responseCode = "404", description = "Administrador no encontrado")
     })
-    @PatchMapping("/{id}")
+    @PatchMapping(value = "/{id}", consumes = {
+            "application/merge-patch+json", "application/json", "application/x-jackson-smile", "application/cbor"})
     public ResponseEntity<Admin> patchAdmin(@PathVariable String id, @RequestBody Map<String, Object> updates) {
-        Admin updated = service.patch(id, updates);
+        Admin updated;
+        try {
+            updated = service.patch(id, updates);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
         return updated != null ?
                 new ResponseEntity<>(updated, HttpStatus.OK) :
                 new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -0,0 +1,80 @@
+package edu.EAM.admin.Admin.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Enrutamiento lectura/escritura; solo se activa con routing.enabled=true.
+ * Sin esa propiedad se usa el DataSource único de Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    // Pool del primario con las mismas propiedades spring.datasource.* y spring.datasource.hikari.*
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                        DataSourceProperties properties,
+                                                        RoutingProperties routing) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < routing.getReplicas().size(); i++) {
+            RoutingProperties.Replica replica = routing.getReplicas().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + i);
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername() != null ? replica.getUsername() : properties.getUsername());
+            pool.setPassword(replica.getPassword() != null ? replica.getPassword() : properties.getPassword());
+            pool.setDriverClassName(properties.determineDriverClassName());
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            pool.setInitializationFailTimeout(-1);  // Arranca aunque la réplica esté caída
+            replicas.add(pool);
+        }
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicas,
+                routing.getMaxLagSeconds(), routing.getLagQuery());
+        routingDataSource.startHealthCheck(routing.getCheckIntervalMs());
+        return routingDataSource;
+    }
+
+    /**
+     * DataSource que usan JPA y los repositorios. El proxy perezoso obtiene la
+     * conexión en la primera sentencia, cuando ya se sabe si la transacción es
+     * de solo lectura.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
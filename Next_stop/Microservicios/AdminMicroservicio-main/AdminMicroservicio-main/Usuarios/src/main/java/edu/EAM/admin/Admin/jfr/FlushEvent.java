@@ -0,0 +1,33 @@
+package edu.EAM.admin.Admin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flush de Hibernate: los INSERT/UPDATE/DELETE pendientes, normalmente al confirmar
+@Name("nextstop.Flush")
+@Label("Flush de Hibernate")
+@Category({"Next Stop", "Admin"})
+@StackTrace(false)
+public final class FlushEvent extends jdk.jfr.Event {
+
+    @Label("Operación")
+    String operation;
+
+    @Label("Entidades")
+    int entities;
+
+    @Label("Colecciones")
+    int collections;
+
+    void finish(int entities, int collections) {
+        end();
+        if (shouldCommit()) {
+            this.operation = "flush";
+            this.entities = entities;
+            this.collections = collections;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package edu.EAM.admin.Admin.jfr;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Eventos propios de Java Flight Recorder (categoría "Next Stop"). Sin una
+ * grabación activa cada evento se reduce a una comprobación de isEnabled();
+ * el Dockerfile arranca una grabación continua con la configuración
+ * "default" (pensada para producción). Para analizar una grabación: JfrReport.
+ */
+@Configuration
+public class JfrConfig {
+
+    // static: un BeanPostProcessor debe registrarse antes que el resto de beans
+    @Bean
+    public static RepositoryEvents repositoryEvents() {
+        return new RepositoryEvents();
+    }
+}
@@ -0,0 +1,40 @@
+package edu.EAM.admin.Admin.jfr;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Marca cada petición con un HttpRequestEvent. La operación usa el patrón de
+ * la ruta (/api/places/{id}), no la URL, para poder agrupar.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class JfrRequestFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (!event.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        event.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            event.finish(request.getMethod(), route != null ? route.toString() : "(sin ruta)", response.getStatus());
+        }
+    }
+}
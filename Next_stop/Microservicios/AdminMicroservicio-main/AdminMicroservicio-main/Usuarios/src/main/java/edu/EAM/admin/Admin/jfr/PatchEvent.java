@@ -0,0 +1,33 @@
+package edu.EAM.admin.Admin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Aplicación de un JSON Merge Patch sobre la entidad (sin el UPDATE, que va en FlushEvent)
+@Name("nextstop.Patch")
+@Label("Aplicación de patch")
+@Category({"Next Stop", "Admin"})
+@StackTrace(false)
+public final class PatchEvent extends jdk.jfr.Event {
+
+    @Label("Operación")
+    String operation;
+
+    @Label("Campos recibidos")
+    int fields;
+
+    @Label("Campos cambiados")
+    int changed;
+
+    public void finish(Class<?> type, int fields, int changed) {
+        end();
+        if (shouldCommit()) {
+            this.operation = type.getSimpleName();
+            this.fields = fields;
+            this.changed = changed;
+            commit();
+        }
+    }
+}
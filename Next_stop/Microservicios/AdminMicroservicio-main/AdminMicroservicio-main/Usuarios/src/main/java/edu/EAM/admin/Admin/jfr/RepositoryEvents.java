@@ -0,0 +1,44 @@
+package edu.EAM.admin.Admin.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Añade a cada repositorio de Spring Data un interceptor que emite un
+ * RepositoryCallEvent por llamada. Va primero en la cadena del proxy, así que
+ * mide también la transacción que abre el propio repositorio.
+ */
+public class RepositoryEvents implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxy, information) -> proxy.addAdvice(0,
+                            new Interceptor(information.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private record Interceptor(String repository) implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            RepositoryCallEvent event = new RepositoryCallEvent();
+            if (!event.isEnabled()) {
+                return invocation.proceed();
+            }
+            event.begin();
+            boolean failed = true;
+            try {
+                Object result = invocation.proceed();
+                failed = false;
+                return result;
+            } finally {
+                event.finish(repository, invocation.getMethod().getName(), failed);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package edu.EAM.admin.Admin.jfr;
+
+import java.lang.reflect.Type;
+
+import org.springframework.http.MediaType;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Lectura del cuerpo de la petición o escritura de la respuesta (JSON, Smile o CBOR)
+@Name("nextstop.Serialization")
+@Label("Serialización")
+@Category({"Next Stop", "Admin"})
+@StackTrace(false)
+public final class SerializationEvent extends jdk.jfr.Event {
+
+    @Label("Operación")
+    String operation;
+
+    public void finish(String direction, MediaType format, Type type) {
+        end();
+        if (shouldCommit()) {
+            String name = type instanceof Class<?> c ? c.getSimpleName() : type.getTypeName().replaceAll("[\\w.]+\\.", "");
+            this.operation = direction + " " + (format != null ? format.getSubtype() : "?") + " " + name;
+            commit();
+        }
+    }
+}
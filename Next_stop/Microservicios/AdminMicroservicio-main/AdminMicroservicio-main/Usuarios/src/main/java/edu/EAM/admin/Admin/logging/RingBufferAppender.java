@@ -0,0 +1,201 @@
+package edu.EAM.admin.Admin.logging;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+/**
+ * Appender asíncrono: el hilo que registra solo encola el evento y un hilo
+ * aparte (log-writer) lo pasa a los appenders de destino (la consola en JSON).
+ *
+ * La cola es acotada y el que registra nunca espera. Cuando queda menos del
+ * discardThresholdPercent libre se descartan los eventos por debajo de WARN;
+ * con la cola llena se pierde cualquiera. Ambos casos se cuentan
+ * (logging.async.dropped) y el hilo escritor avisa de los descartes con un
+ * WARN como mucho una vez por segundo.
+ *
+ * Uso en logback-spring.xml, con los destinos como appender-ref.
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    private static final int BATCH = 256;
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private int capacity = 8192;
+    private int discardThresholdPercent = 20;
+    private long maxFlushMillis = 1000;
+
+    private ArrayBlockingQueue<ILoggingEvent> queue;
+    private int discardThreshold;
+    private Thread worker;
+    private long reported;
+    private long lastReport;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("RingBufferAppender " + getName() + " no tiene appender-ref");
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        discardThreshold = capacity * discardThresholdPercent / 100;
+        worker = Thread.ofPlatform().daemon().name("log-writer").unstarted(this::drain);
+        super.start();
+        worker.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (queue.remainingCapacity() < discardThreshold && event.getLevel().toInt() < Level.WARN_INT) {
+            discarded.increment();
+            return;
+        }
+        // Fija mensaje, MDC y nombre del hilo antes de cruzar a otro hilo
+        event.prepareForDeferredProcessing();
+        if (!queue.offer(event)) {
+            overflowed.increment();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        try {
+            worker.join(maxFlushMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("Quedaron " + queue.size() + " eventos sin escribir al detener " + getName());
+        }
+    }
+
+    private void drain() {
+        List<ILoggingEvent> batch = new ArrayList<>(BATCH);
+        while (isStarted() || !queue.isEmpty()) {
+            try {
+                ILoggingEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH - 1);
+                    batch.forEach(appenders::appendLoopOnAppenders);
+                    batch.clear();
+                }
+                reportDrops();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                batch.clear();
+                addError("Error al escribir eventos de log", e);
+            }
+        }
+    }
+
+    // Lo escribe el propio hilo escritor, directamente a los destinos
+    private void reportDrops() {
+        long dropped = getDropped();
+        long now = System.nanoTime();
+        if (dropped == reported || now - lastReport < REPORT_INTERVAL_NANOS) {
+            return;
+        }
+        LoggerContext context = (LoggerContext) getContext();
+        LoggingEvent warning = new LoggingEvent(RingBufferAppender.class.getName(),
+                context.getLogger(RingBufferAppender.class), Level.WARN,
+                "Cola de logs llena: se descartaron {} eventos (total {})", null,
+                new Object[] {dropped - reported, dropped});
+        appenders.appendLoopOnAppenders(warning);
+        reported = dropped;
+        lastReport = now;
+    }
+
+    // Eventos bajo WARN descartados al pasar el umbral
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    // Eventos perdidos con la cola llena (cualquier nivel)
+    public long getOverflowed() {
+        return overflowed.sum();
+    }
+
+    public long getDropped() {
+        return discarded.sum() + overflowed.sum();
+    }
+
+    public int getQueued() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setDiscardThresholdPercent(int discardThresholdPercent) {
+        this.discardThresholdPercent = discardThresholdPercent;
+    }
+
+    public void setMaxFlushMillis(long maxFlushMillis) {
+        this.maxFlushMillis = maxFlushMillis;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
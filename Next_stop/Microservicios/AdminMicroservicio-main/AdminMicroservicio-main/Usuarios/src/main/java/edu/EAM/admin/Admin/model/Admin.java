@@ -3,10 +3,10 @@ package edu.EAM.admin.Admin.model;
 import jakarta.persistence.Column;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -18,10 +18,11 @@ import lombok.Setter;
 @NoArgsConstructor
 @Entity
 @Table(name = "admins") // Nombre de la tabla en la base de datos
+@DynamicUpdate  // El UPDATE solo incluye las columnas modificadas
 public class Admin {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID) // Genera IDs automáticos tipo UUID
+    @UuidOrAssigned // Genera IDs automáticos tipo UUID (o respeta el asignado en la carga masiva)
     private String id;
 
     @Column(nullable = false)
@@ -0,0 +1,24 @@
+package edu.EAM.admin.Admin.model;
+
+/**
+ * Resultado de un elemento dentro de una operación masiva. "index" es la
+ * posición del elemento en la petición.
+ */
+public record BulkResult(int index, String id, Status status, String error) {
+
+    public enum Status {
+        creado,
+        actualizado,
+        eliminado,
+        no_encontrado,
+        error
+    }
+
+    public static BulkResult of(int index, String id, Status status) {
+        return new BulkResult(index, id, status, null);
+    }
+
+    public static BulkResult error(int index, String id, String message) {
+        return new BulkResult(index, id, Status.error, message);
+    }
+}
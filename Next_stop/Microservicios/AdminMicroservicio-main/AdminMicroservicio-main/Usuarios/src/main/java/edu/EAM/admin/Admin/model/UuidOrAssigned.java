@@ -0,0 +1,19 @@
+package edu.EAM.admin.Admin.model;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Id UUID generado al insertar, salvo que ya venga asignado. La carga masiva
+ * crea con su id a los administradores que aún no existen.
+ */
+@IdGeneratorType(UuidOrAssignedGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface UuidOrAssigned {
+}
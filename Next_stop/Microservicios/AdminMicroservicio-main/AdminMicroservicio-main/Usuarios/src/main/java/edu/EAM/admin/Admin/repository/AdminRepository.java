@@ -2,8 +2,11 @@ package edu.EAM.admin.Admin.repository;
 
 import edu.EAM.admin.Admin.model.Admin;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +14,8 @@ public interface AdminRepository extends JpaRepository<Admin, String> {
 
     // Buscar por coincidencia parcial en el nombre (ignora mayúsculas/minúsculas)
     List<Admin> findByNameContainingIgnoreCase(String name);
+
+    // Ids que existen de entre los recibidos (una sola consulta IN)
+    @Query("select a.id from Admin a where a.id in :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
 }
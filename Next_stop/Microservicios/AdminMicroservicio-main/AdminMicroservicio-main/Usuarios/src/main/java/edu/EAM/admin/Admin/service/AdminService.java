@@ -1,104 +1,92 @@
 package edu.EAM.admin.Admin.service;
 
-import edu.EAM.admin.Admin.model.Address;
+import edu.EAM.admin.Admin.cache.SingleFlight;
 import edu.EAM.admin.Admin.model.Admin;
+import edu.EAM.admin.Admin.model.BulkResult;
+import edu.EAM.admin.Admin.patch.MergePatch;
 import edu.EAM.admin.Admin.repository.AdminRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class AdminService {
 
     private final AdminRepository repository;
+    // Lecturas idénticas concurrentes comparten una sola consulta
+    private final SingleFlight<String, Object> reads;
+    // Operaciones masivas: cada bloque de bulk.chunk-size elementos va en su propia transacción
+    private final TransactionTemplate transactions;
+    // Solo la consulta que ejecuta la lectura abre la transacción (puede ir a una réplica)
+    private final TransactionTemplate readOnly;
+    private final int chunkSize;
 
     @Autowired
-    public AdminService(AdminRepository repository) {
+    public AdminService(AdminRepository repository, MeterRegistry registry,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${bulk.chunk-size:500}") int chunkSize) {
         this.repository = repository;
+        this.reads = new SingleFlight<>("admins", registry);
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.chunkSize = chunkSize;
     }
 
     public Admin save(Admin admin) {
-        return repository.save(admin);
+        Admin saved = repository.save(admin);
+        invalidate(saved.getId());
+        return saved;
     }
 
+    // Solo lectura: el resultado puede compartirse entre peticiones concurrentes.
+    // Los que esperan en reads no ocupan una conexión mientras la consulta corre
     public Admin findById(String id) {
-        return repository.findById(id).orElse(null);
+        return (Admin) reads.execute("id:" + id, () -> readOnly.execute(status -> repository.findById(id).orElse(null)));
     }
 
+    // Las listas compartidas se devuelven inmodificables
+    @SuppressWarnings("unchecked")
     public List<Admin> findAll() {
-        return repository.findAll();
+        return (List<Admin>) reads.execute("all", () -> List.copyOf(readOnly.execute(status -> repository.findAll())));
     }
 
+    @SuppressWarnings("unchecked")
     public List<Admin> findByName(String name) {
-        return repository.findByNameContainingIgnoreCase(name);
+        return (List<Admin>) reads.execute("name:" + name,
+                () -> List.copyOf(readOnly.execute(status -> repository.findByNameContainingIgnoreCase(name))));
     }
 
     public Admin update(Admin admin) {
-        return repository.save(admin);
+        Admin saved = repository.save(admin);
+        invalidate(saved.getId());
+        return saved;
     }
 
+    // JSON Merge Patch (RFC 7396): solo se actualizan las columnas que cambian
+    @Transactional
     public Admin patch(String id, Map<String, Object> updates) {
         Admin admin = repository.findById(id).orElse(null);
         if (admin != null) {
-            updates.forEach((key, value) -> {
-                switch (key) {
-                    case "name" -> {
-                        String newName = (String) value;
-                        if (newName != null && !newName.trim().isEmpty()) {
-                            admin.setName(newName);
-                        }
-                    }
-                    case "gender" -> {
-                        String newGender = (String) value;
-                        if (newGender != null && !newGender.trim().isEmpty()) {
-                            admin.setGender(newGender);
-                        }
-                    }
-                    case "email" -> {
-                        String newEmail = (String) value;
-                        if (newEmail != null && !newEmail.trim().isEmpty()) {
-                            admin.setEmail(newEmail);
-                        }
-                    }
-                    case "phoneNumber" -> {
-                        String newPhone = (String) value;
-                        if (newPhone != null && !newPhone.trim().isEmpty()) {
-                            admin.setPhoneNumber(newPhone);
-                        }
-                    }
-                    case "address" -> {
-                        if (value instanceof Map<?, ?> addrMap) {
-                            Address current = admin.getAddress();
-                            if (current == null) {
-                                current = new Address();
-                            }
-                            String street = (String) addrMap.get("street");
-                            if (street != null && !street.trim().isEmpty()) {
-                                current.setStreet(street);
-                            }
-                            String number = (String) addrMap.get("number");
-                            if (number != null && !number.trim().isEmpty()) {
-                                current.setNumber(number);
-                            }
-                            String neighborhood = (String) addrMap.get("neighborhood");
-                            if (neighborhood != null && !neighborhood.trim().isEmpty()) {
-                                current.setNeighborhood(neighborhood);
-                            }
-                            String city = (String) addrMap.get("city");
-                            if (city != null && !city.trim().isEmpty()) {
-                                current.setCity(city);
-                            }
-                            String postalCode = (String) addrMap.get("postalCode");
-                            if (postalCode != null && !postalCode.trim().isEmpty()) {
-                                current.setPostalCode(postalCode);
-                            }
-                            admin.setAddress(current);
-                        }
-                    }
-                }
-            });
+            Set<String> changed = MergePatch.of(Admin.class).apply(admin, updates);
+            if (changed.isEmpty()) {
+                return admin;
+            }
+            invalidate(id);
             return repository.save(admin);
         }
         return null;
@@ -106,5 +94,125 @@ public class AdminService {
 
     public void deleteById(String id) {
         repository.deleteById(id);
+        invalidate(id);
+    }
+
+    // Multi-get: una consulta IN por bloque de ids; los que no existen se omiten
+    @Transactional(readOnly = true)  // Puede ir a una réplica
+    public List<Admin> findAllById(List<String> ids) {
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        Map<String, Admin> found = new HashMap<>();
+        for (int start = 0; start < distinct.size(); start += chunkSize) {
+            repository.findAllById(distinct.subList(start, Math.min(start + chunkSize, distinct.size())))
+                    .forEach(admin -> found.put(admin.getId(), admin));
+        }
+        return distinct.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Alta/actualización masiva (upsert). Con un id existente se reemplaza el
+     * administrador (como PUT); sin id o con uno que no existe se crea, conservando
+     * el id recibido. Los INSERT/UPDATE de cada bloque salen en lotes JDBC
+     * (hibernate.jdbc.batch_size).
+     */
+    public List<BulkResult> saveAll(List<Admin> admins) {
+        List<BulkResult> results = new ArrayList<>(admins.size());
+        for (int start = 0; start < admins.size(); start += chunkSize) {
+            results.addAll(saveChunk(admins.subList(start, Math.min(start + chunkSize, admins.size())), start));
+        }
+        return results;
+    }
+
+    public List<BulkResult> deleteAllById(List<String> ids) {
+        List<BulkResult> results = new ArrayList<>(ids.size());
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            List<String> chunk = ids.subList(start, Math.min(start + chunkSize, ids.size()));
+            Set<String> deleted;
+            try {
+                deleted = transactions.execute(status -> {
+                    Set<String> existing = new HashSet<>(repository.findExistingIds(chunk));
+                    if (!existing.isEmpty()) {
+                        repository.deleteAllByIdInBatch(existing);  // Un solo DELETE ... IN
+                        reads.invalidateAfterCommit(k -> true);
+                    }
+                    return existing;
+                });
+            } catch (RuntimeException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(BulkResult.error(start + i, chunk.get(i), message(e)));
+                }
+                continue;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                String id = chunk.get(i);
+                results.add(BulkResult.of(start + i, id,
+                        deleted.contains(id) ? BulkResult.Status.eliminado : BulkResult.Status.no_encontrado));
+            }
+        }
+        return results;
+    }
+
+    // Si el bloque falla (p. ej. un dato inválido), se repite elemento a elemento
+    // para que el error quede solo en los que lo causan
+    private List<BulkResult> saveChunk(List<Admin> chunk, int offset) {
+        try {
+            return transactions.execute(status -> upsert(chunk, offset));
+        } catch (RuntimeException e) {
+            List<BulkResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Admin admin = chunk.get(i);
+                int index = offset + i;
+                try {
+                    results.addAll(transactions.execute(status -> upsert(List.of(admin), index)));
+                } catch (RuntimeException itemError) {
+                    results.add(BulkResult.error(index, admin.getId(), message(itemError)));
+                }
+            }
+            return results;
+        }
+    }
+
+    private List<BulkResult> upsert(List<Admin> chunk, int offset) {
+        List<String> ids = chunk.stream().map(Admin::getId).filter(Objects::nonNull).toList();
+        Map<String, Admin> existing = new HashMap<>();
+        repository.findAllById(ids).forEach(admin -> existing.put(admin.getId(), admin));
+        List<BulkResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Admin incoming = chunk.get(i);
+            if (incoming.getId() != null && existing.containsKey(incoming.getId())) {
+                copyFields(incoming, existing.get(incoming.getId()));
+                results.add(BulkResult.of(offset + i, incoming.getId(), BulkResult.Status.actualizado));
+            } else {
+                // Copia nueva: si la transacción se revierte, el elemento recibido sigue sin id
+                Admin copy = copyFields(incoming, new Admin());
+                copy.setId(incoming.getId());  // null: lo genera Hibernate
+                Admin created = repository.save(copy);
+                existing.put(created.getId(), created);  // Un id repetido en la petición actualiza al recién creado
+                results.add(BulkResult.of(offset + i, created.getId(), BulkResult.Status.creado));
+            }
+        }
+        repository.flush();  // Los errores de datos saltan aquí, dentro del bloque
+        reads.invalidateAfterCommit(k -> true);
+        return results;
+    }
+
+    private static Admin copyFields(Admin from, Admin to) {
+        to.setName(from.getName());
+        to.setGender(from.getGender());
+        to.setEmail(from.getEmail());
+        to.setPhoneNumber(from.getPhoneNumber());
+        to.setAddress(from.getAddress());
+        return to;
+    }
+
+    private static String message(RuntimeException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+
+    // Tras el commit, las nuevas lecturas de ese administrador y de los listados no se
+    // unen a consultas que empezaron antes del cambio
+    private void invalidate(String id) {
+        String key = "id:" + id;
+        reads.invalidateAfterCommit(k -> k.equals(key) || !k.startsWith("id:"));
     }
 }
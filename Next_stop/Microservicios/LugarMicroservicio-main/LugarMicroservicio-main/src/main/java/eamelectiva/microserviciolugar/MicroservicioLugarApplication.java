@@ -1,18 +1,38 @@
 package eamelectiva.microserviciolugar;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
+import eamelectiva.microserviciolugar.jfr.RemoteCallInterceptor;
+
 @SpringBootApplication
+@EnableScheduling  // Tareas periódicas (archivado de lugares rechazados)
 public class MicroservicioLugarApplication {  // O el nombre real de tu clase
     public static void main(String[] args) {
         SpringApplication.run(MicroservicioLugarApplication.class, args);
     }
     // Agrega este bean para RestTemplate
+    // Cliente HTTP del JDK: no bloquea dentro de synchronized, así que con hilos
+    // virtuales (spring.threads.virtual.enabled) la espera no ocupa un hilo portador
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        HttpClient.Builder client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)  // Sin intentar h2c contra solicitudes
+                .connectTimeout(Duration.ofSeconds(5));
+        if (virtualThreads) {
+            client.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory(client.build()));
+        restTemplate.getInterceptors().add(new RemoteCallInterceptor());  // Eventos JFR de llamadas remotas
+        return restTemplate;
     }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package eamelectiva.microserviciolugar.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Caché de lecturas de lugares y su copia en disco (propiedades places.cache.*).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "places.cache")
+public class PlaceCacheProperties {
+
+    // Tiempo máximo que se sirve una entrada sin volver a la base (cota de
+    // desfase si las lecturas van a una réplica con retraso)
+    private long ttlSeconds = 60;
+
+    private int maxEntries = 10000;
+
+    private boolean snapshotEnabled = true;
+
+    private String snapshotPath = "data/lugar-cache.bin";
+
+    private long snapshotIntervalMs = 60000;
+
+    // Una copia más vieja que esto se ignora al arrancar
+    private long snapshotMaxAgeMinutes = 1440;
+}
@@ -0,0 +1,170 @@
+package eamelectiva.microserviciolugar.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import eamelectiva.microserviciolugar.model.Place;
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+
+/**
+ * Copia binaria del conjunto caliente de lecturas (lugares por id y la lista
+ * de aceptados) para arrancar con la caché llena.
+ *
+ * Formato: cabecera (magia, versión, fecha de escritura), los lugares, los
+ * ids de aceptados (-1 si no estaban en caché) y un CRC32 de todo lo
+ * anterior. El estado se guarda por nombre, no por posición en el enum: una
+ * versión que añada o reordene estados no lee otro. Un archivo truncado,
+ * corrupto, de otra versión o con un estado que ya no existe se descarta
+ * entero.
+ */
+public record PlaceSnapshot(Instant writtenAt, List<Place> places, List<Long> acceptedIds) {
+
+    private static final int MAGIC = 0x4C554731;  // "LUG1"
+    private static final int VERSION = 2;  // 2: estado por nombre (1 usaba ordinal)
+
+    // Escribe en un temporal y lo renombra: un lector nunca ve un archivo a medias
+    public void write(Path path) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + places.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeInstant(out, writtenAt);
+        out.writeInt(places.size());
+        for (Place place : places) {
+            out.writeLong(place.getId());
+            writeString(out, place.getName());
+            writeString(out, place.getDescription());
+            writeString(out, place.getStatus() != null ? place.getStatus().name() : null);
+            writeInstant(out, place.getUpdatedAt());
+        }
+        if (acceptedIds == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(acceptedIds.size());
+            for (Long id : acceptedIds) {
+                out.writeLong(id);
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, bytes.toByteArray());
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Lee la copia mapeando el archivo en memoria (sin copiarlo a un buffer
+     * intermedio). Lanza IOException si el archivo no es válido.
+     */
+    public static PlaceSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 8 || size > Integer.MAX_VALUE) {
+                throw new IOException("Tamaño de copia no válido: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - 8));
+            if (crc.getValue() != buffer.getLong((int) size - 8)) {
+                throw new IOException("CRC de la copia no coincide");
+            }
+            return parse(buffer.limit((int) size - 8));
+        }
+    }
+
+    private static PlaceSnapshot parse(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Formato de copia desconocido");
+            }
+            Instant writtenAt = readInstant(buffer);
+            int count = buffer.getInt();
+            List<Place> places = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Place place = new Place();
+                place.setId(buffer.getLong());
+                place.setName(readString(buffer));
+                place.setDescription(readString(buffer));
+                place.setStatus(status(readString(buffer)));
+                place.setUpdatedAt(readInstant(buffer));
+                places.add(place);
+            }
+            int acceptedCount = buffer.getInt();
+            List<Long> acceptedIds = null;
+            if (acceptedCount >= 0) {
+                acceptedIds = new ArrayList<>(acceptedCount);
+                for (int i = 0; i < acceptedCount; i++) {
+                    acceptedIds.add(buffer.getLong());
+                }
+            }
+            return new PlaceSnapshot(writtenAt, places, acceptedIds);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Copia truncada", e);
+        }
+    }
+
+    private static PlaceStatus status(String name) throws IOException {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return PlaceStatus.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Estado desconocido en la copia: " + name, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeLong(value != null ? value.getEpochSecond() : Long.MIN_VALUE);
+        out.writeInt(value != null ? value.getNano() : 0);
+    }
+
+    private static Instant readInstant(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == Long.MIN_VALUE ? null : Instant.ofEpochSecond(seconds, nanos);
+    }
+}
@@ -0,0 +1,326 @@
+package eamelectiva.microserviciolugar.cache;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import eamelectiva.microserviciolugar.datasource.ReadYourWrites;
+import eamelectiva.microserviciolugar.events.PlaceChangedEvent;
+import eamelectiva.microserviciolugar.model.Place;
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+import eamelectiva.microserviciolugar.repository.PlaceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Caché de lecturas calientes de lugares: por id y la lista de aceptados.
+ *
+ * Cada cambio confirmado (PlaceChangedEvent) sube la generación y quita lo
+ * afectado; una carga que empezó antes de un cambio no se guarda. Las cargas
+ * se leen del primario (nunca de una réplica atrasada), así que la caché
+ * nunca se queda con un valor más viejo que el último commit de este
+ * servicio.
+ *
+ * Cada places.cache.snapshot-interval-ms y al apagar se escribe una copia en
+ * disco ({@link PlaceSnapshot}); al arrancar se carga antes de recibir
+ * tráfico y un hilo aparte la valida contra la base (updated_at por id y la
+ * lista de aceptados actual). Hasta terminar, las lecturas pueden ver el
+ * estado de la copia.
+ *
+ * Los cambios hechos por otras instancias llegan por
+ * {@link eamelectiva.microserviciolugar.events.PlaceChangeFeed}.
+ */
+@Component
+@EnableConfigurationProperties(PlaceCacheProperties.class)
+public class WarmPlaceCache {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmPlaceCache.class);
+    private static final int ID_CHUNK = 1000;
+
+    private record Entry(Place place, long loadedAt) {
+    }
+
+    private record Accepted(List<Place> places, long loadedAt) {
+    }
+
+    private final PlaceRepository repository;
+    private final TransactionTemplate readOnly;
+    private final PlaceCacheProperties properties;
+    private final long ttlNanos;
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final AtomicReference<Accepted> accepted = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile boolean validated;
+    // Sin noticias de las demás instancias no se sirve ni se guarda nada
+    private volatile boolean suspended;
+    private final Counter hits;
+    private final Counter misses;
+
+    public WarmPlaceCache(PlaceRepository repository, PlatformTransactionManager transactionManager,
+                          PlaceCacheProperties properties, MeterRegistry registry) {
+        this.repository = repository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.properties = properties;
+        this.ttlNanos = Duration.ofSeconds(properties.getTtlSeconds()).toNanos();
+        this.hits = Counter.builder("places.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("places.cache.requests").tag("result", "miss").register(registry);
+        Gauge.builder("places.cache.size", byId, Map::size).register(registry);
+    }
+
+    // Valor a capturar antes de consultar la base y pasar a put()
+    public long generation() {
+        return generation.get();
+    }
+
+    public Place get(Long id) {
+        Entry entry = suspended ? null : byId.get(id);
+        if (entry == null || expired(entry.loadedAt())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.place();
+    }
+
+    public void put(Long id, Place place, long loadedGeneration) {
+        if (place == null || suspended || byId.size() >= properties.getMaxEntries() && !byId.containsKey(id)) {
+            return;
+        }
+        if (generation.get() != loadedGeneration) {
+            return;
+        }
+        Entry entry = new Entry(place, System.nanoTime());
+        byId.put(id, entry);
+        // Un cambio entre la comprobación y el put: se deshace
+        if (generation.get() != loadedGeneration) {
+            byId.remove(id, entry);
+        }
+    }
+
+    public List<Place> accepted() {
+        Accepted current = suspended ? null : accepted.get();
+        if (current == null || expired(current.loadedAt())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return current.places();
+    }
+
+    public void putAccepted(List<Place> places, long loadedGeneration) {
+        if (suspended || generation.get() != loadedGeneration) {
+            return;
+        }
+        Accepted value = new Accepted(List.copyOf(places), System.nanoTime());
+        accepted.set(value);
+        if (generation.get() != loadedGeneration) {
+            accepted.compareAndSet(value, null);
+        }
+    }
+
+    // Después del commit (o en el momento, si no hay transacción)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlaceChanged(PlaceChangedEvent event) {
+        evict(event.placeId());
+    }
+
+    // También para cambios confirmados en otra instancia
+    public void evict(Long id) {
+        generation.incrementAndGet();
+        byId.remove(id);
+        accepted.set(null);
+    }
+
+    // La generación sube en clear(): una carga en curso tampoco se guarda
+    public void suspend() {
+        suspended = true;
+        clear();
+    }
+
+    public void resume() {
+        suspended = false;
+    }
+
+    @PostConstruct
+    void loadSnapshot() {
+        if (!properties.isSnapshotEnabled()) {
+            validated = true;
+            return;
+        }
+        Path path = Path.of(properties.getSnapshotPath());
+        PlaceSnapshot snapshot;
+        try {
+            snapshot = PlaceSnapshot.read(path);
+        } catch (NoSuchFileException e) {
+            validated = true;  // Primer arranque: no hay nada que validar
+            return;
+        } catch (IOException e) {
+            log.warn("Copia de caché {} descartada: {}", path, e.getMessage());
+            validated = true;
+            return;
+        }
+        if (snapshot.writtenAt().isBefore(Instant.now().minus(Duration.ofMinutes(properties.getSnapshotMaxAgeMinutes())))) {
+            log.info("Copia de caché {} demasiado antigua ({}), se arranca en frío", path, snapshot.writtenAt());
+            validated = true;
+            return;
+        }
+        long now = System.nanoTime();
+        Map<Long, Place> places = new HashMap<>();
+        for (Place place : snapshot.places()) {
+            places.put(place.getId(), place);
+            byId.put(place.getId(), new Entry(place, now));
+        }
+        if (snapshot.acceptedIds() != null) {
+            List<Place> list = snapshot.acceptedIds().stream().map(places::get).filter(Objects::nonNull).toList();
+            accepted.set(new Accepted(list, now));
+        }
+        log.info("Caché de lugares cargada desde {} ({} lugares, escrita {})", path, byId.size(), snapshot.writtenAt());
+    }
+
+    // La validación corre en su propio hilo para no retrasar la disponibilidad del servicio
+    @EventListener(ApplicationReadyEvent.class)
+    public void startValidation() {
+        if (validated) {
+            return;
+        }
+        Thread.ofPlatform().daemon().name("lugar-cache-validation").start(() -> {
+            try {
+                validate();
+            } catch (RuntimeException e) {
+                // Sin poder validar no se sigue sirviendo la copia
+                log.warn("No se pudo validar la copia de caché, se descarta: {}", e.getMessage());
+                clear();
+            }
+            validated = true;
+        });
+    }
+
+    /**
+     * Compara updated_at de cada lugar de la copia con la base: los borrados
+     * salen, los modificados se recargan. La lista de aceptados se vuelve a
+     * consultar entera. Si hubo escrituras mientras tanto, la generación
+     * impide guardar algo que ya cambió.
+     */
+    void validate() {
+        long loadedGeneration = generation.get();
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        Map<Long, Instant> current = new HashMap<>();
+        for (int start = 0; start < ids.size(); start += ID_CHUNK) {
+            List<Long> chunk = ids.subList(start, Math.min(start + ID_CHUNK, ids.size()));
+            List<Object[]> rows = primary(status -> repository.findUpdatedAtByIds(chunk));
+            for (Object[] row : rows) {
+                current.put((Long) row[0], (Instant) row[1]);
+            }
+        }
+        List<Long> stale = new ArrayList<>();
+        int removed = 0;
+        for (Long id : ids) {
+            Entry entry = byId.get(id);
+            if (entry == null) {
+                continue;
+            }
+            if (!current.containsKey(id)) {
+                byId.remove(id, entry);
+                removed++;
+            } else if (!sameInstant(current.get(id), entry.place().getUpdatedAt())) {
+                byId.remove(id, entry);
+                stale.add(id);
+            }
+        }
+        for (int start = 0; start < stale.size(); start += ID_CHUNK) {
+            List<Long> chunk = stale.subList(start, Math.min(start + ID_CHUNK, stale.size()));
+            primary(status -> repository.findAllById(chunk))
+                    .forEach(place -> put(place.getId(), place, loadedGeneration));
+        }
+        accepted.set(null);
+        putAccepted(primary(status -> repository.findByStatus(PlaceStatus.aceptada)), loadedGeneration);
+        log.info("Copia de caché validada: {} lugares al día, {} recargados, {} eliminados",
+                ids.size() - stale.size() - removed, stale.size(), removed);
+    }
+
+    @Scheduled(initialDelayString = "${places.cache.snapshot-interval-ms:60000}",
+            fixedDelayString = "${places.cache.snapshot-interval-ms:60000}")
+    public void writeSnapshot() {
+        // Una copia sin validar se reescribiría con fecha nueva pero datos viejos
+        if (!properties.isSnapshotEnabled() || !validated || suspended) {
+            return;
+        }
+        Map<Long, Place> places = new LinkedHashMap<>();
+        byId.forEach((id, entry) -> {
+            if (!expired(entry.loadedAt())) {
+                places.put(id, entry.place());
+            }
+        });
+        List<Long> acceptedIds = null;
+        Accepted current = accepted.get();
+        if (current != null && !expired(current.loadedAt())) {
+            acceptedIds = new ArrayList<>(current.places().size());
+            for (Place place : current.places()) {
+                places.putIfAbsent(place.getId(), place);
+                acceptedIds.add(place.getId());
+            }
+        }
+        Path path = Path.of(properties.getSnapshotPath());
+        try {
+            new PlaceSnapshot(Instant.now(), new ArrayList<>(places.values()), acceptedIds).write(path);
+        } catch (IOException e) {
+            log.warn("No se pudo escribir la copia de caché {}: {}", path, e.getMessage());
+        }
+    }
+
+    // Al apagar (despliegue) se deja la copia más reciente para el siguiente arranque
+    @PreDestroy
+    public void shutdown() {
+        writeSnapshot();
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        byId.clear();
+        accepted.set(null);
+    }
+
+    private boolean expired(long loadedAt) {
+        return System.nanoTime() - loadedAt > ttlNanos;
+    }
+
+    // Lo que entra en la caché se lee del primario, no de una réplica
+    private <T> T primary(TransactionCallback<T> read) {
+        return ReadYourWrites.onPrimary(() -> readOnly.execute(read));
+    }
+
+    // La base puede guardar menos precisión que Instant (microsegundos en MariaDB)
+    private static boolean sameInstant(Instant a, Instant b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.toEpochMilli() == b.toEpochMilli();
+    }
+}
@@ -0,0 +1,127 @@
+package eamelectiva.microserviciolugar.config;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import eamelectiva.microserviciolugar.jfr.SerializationEvent;
+
+/**
+ * Negociación de contenido binaria: además de JSON, los endpoints responden y
+ * aceptan application/x-jackson-smile y application/cbor según los headers
+ * Accept / Content-Type. JSON sigue siendo el formato por defecto.
+ *
+ * Los tres conversores emiten un SerializationEvent (JFR) al leer y escribir.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // Builder de Spring Boot: mismos módulos y opciones que el ObjectMapper de JSON
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    public WebConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.builders = builders;
+    }
+
+    // Reemplaza al conversor JSON de Spring Boot (mismo ObjectMapper) para medir la serialización
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            public Object read(Type type, Class<?> contextClass, HttpInputMessage input) throws IOException {
+                return timedRead(type, input, () -> super.read(type, contextClass, input));
+            }
+
+            @Override
+            protected void writeInternal(Object value, Type type, HttpOutputMessage output) throws IOException {
+                timedWrite(value, type, output, () -> super.writeInternal(value, type, output));
+            }
+        };
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring MVC ya registra Smile y CBOR si están en el classpath: se reemplazan en su
+        // posición (o se agregan al final) para no desplazar a JSON cuando el cliente envía Accept: */*
+        replace(converters, MappingJackson2SmileHttpMessageConverter.class, new MappingJackson2SmileHttpMessageConverter(
+                builders.getObject().factory(new SmileFactory()).build()) {
+            @Override
+            public Object read(Type type, Class<?> contextClass, HttpInputMessage input) throws IOException {
+                return timedRead(type, input, () -> super.read(type, contextClass, input));
+            }
+
+            @Override
+            protected void writeInternal(Object value, Type type, HttpOutputMessage output) throws IOException {
+                timedWrite(value, type, output, () -> super.writeInternal(value, type, output));
+            }
+        });
+        replace(converters, MappingJackson2CborHttpMessageConverter.class, new MappingJackson2CborHttpMessageConverter(
+                builders.getObject().factory(new CBORFactory()).build()) {
+            @Override
+            public Object read(Type type, Class<?> contextClass, HttpInputMessage input) throws IOException {
+                return timedRead(type, input, () -> super.read(type, contextClass, input));
+            }
+
+            @Override
+            protected void writeInternal(Object value, Type type, HttpOutputMessage output) throws IOException {
+                timedWrite(value, type, output, () -> super.writeInternal(value, type, output));
+            }
+        });
+    }
+
+    private static void replace(List<HttpMessageConverter<?>> converters, Class<?> type, HttpMessageConverter<?> converter) {
+        int index = -1;
+        for (int i = converters.size() - 1; i >= 0; i--) {
+            if (type.isInstance(converters.get(i))) {
+                converters.remove(i);
+                index = i;
+            }
+        }
+        converters.add(index >= 0 ? index : converters.size(), converter);
+    }
+
+    private interface IoCall<T> {
+        T call() throws IOException;
+    }
+
+    private interface IoRun {
+        void run() throws IOException;
+    }
+
+    // Eventos JFR de serialización (SerializationEvent)
+    private static Object timedRead(Type type, HttpInputMessage input, IoCall<Object> read) throws IOException {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        try {
+            return read.call();
+        } finally {
+            event.finish("read", input.getHeaders().getContentType(), type);
+        }
+    }
+
+    private static void timedWrite(Object value, Type type, HttpOutputMessage output, IoRun write) throws IOException {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        try {
+            write.run();
+        } finally {
+            event.finish("write", output.getHeaders().getContentType(), type != null ? type : value.getClass());
+        }
+    }
+}
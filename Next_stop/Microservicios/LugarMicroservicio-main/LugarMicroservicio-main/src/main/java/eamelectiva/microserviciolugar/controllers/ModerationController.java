@@ -0,0 +1,52 @@
+package eamelectiva.microserviciolugar.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import eamelectiva.microserviciolugar.model.ModerationClaim;
+import eamelectiva.microserviciolugar.service.ModerationQueue;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/places/moderacion")
+@Tag(name = "Moderación", description = "Cola de lugares pendientes repartida entre moderadores")
+@CrossOrigin
+public class ModerationController {
+
+    private final ModerationQueue queue;
+
+    @Autowired
+    public ModerationController(ModerationQueue queue) {
+        this.queue = queue;
+    }
+
+    @Operation(summary = "Reclamar lugares pendientes",
+            description = "Entrega al moderador los siguientes lugares pendientes que nadie está revisando. "
+                    + "Si no los acepta o rechaza antes de expiresAt vuelven a la cola. Los reclamos solo se respetan "
+                    + "cuando la decisión envía X-Moderador")
+    @ApiResponse(responseCode = "200", description = "Lugares reclamados (lista vacía si no quedan pendientes libres)")
+    @PostMapping("/reclamar")
+    public ResponseEntity<ModerationClaim> claim(@RequestHeader("X-Moderador") String moderator,
+                                                 @RequestParam(defaultValue = "10") int cantidad) {
+        return new ResponseEntity<>(queue.claim(moderator, cantidad), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Liberar lugares reclamados", description = "Devuelve a la cola los lugares indicados del moderador")
+    @ApiResponse(responseCode = "200", description = "Número de lugares liberados")
+    @PostMapping("/liberar")
+    public ResponseEntity<Integer> release(@RequestHeader("X-Moderador") String moderator, @RequestBody List<Long> ids) {
+        return new ResponseEntity<>(queue.release(moderator, ids), HttpStatus.OK);
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,11 +15,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import eamelectiva.microserviciolugar.events.PlaceEventStream;
 import eamelectiva.microserviciolugar.model.Place;
-import eamelectiva.microserviciolugar.model.PlaceStatus;
 import eamelectiva.microserviciolugar.service.PlaceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -32,10 +36,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class PlaceController {
 
     private final PlaceService service;
+    private final PlaceEventStream eventStream;
 
     @Autowired
-    public PlaceController(PlaceService service) {
+    public PlaceController(PlaceService service, PlaceEventStream eventStream) {
         this.service = service;
+        this.eventStream = eventStream;
     }
 
     // Obtener todos los lugares
@@ -46,15 +52,37 @@ public class PlaceController {
         return new ResponseEntity<>(service.findAll(), HttpStatus.OK);
     }
 
+    // Cuántos lugares hay en cada estado
+    @Operation(summary = "Contar lugares por estado",
+            description = "Devuelve cuántos lugares hay en cada estado y el total, sin descargar los listados")
+    @ApiResponse(responseCode = "200", description = "Cuentas por estado")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Long>> getStats() {
+        return new ResponseEntity<>(service.stats(), HttpStatus.OK);
+    }
+
+    // Suscribirse a los cambios de lugares (Server-Sent Events)
+    @Operation(summary = "Stream de cambios de lugares",
+            description = "Envía un evento por cada lugar creado, actualizado, aceptado, rechazado o eliminado, "
+                    + "también los confirmados en otras instancias (con el retraso de places.invalidation.lag). "
+                    + "Con el header Last-Event-ID se reanuda desde el último evento recibido; si ese evento "
+                    + "es de otro arranque o de otra instancia llega un evento reset (volver a cargar las listas)")
+    @ApiResponse(responseCode = "200", description = "Stream de eventos abierto")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPlaceEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return eventStream.subscribe(lastEventId);
+    }
+
     // Obtener lugar por ID
-    @Operation(summary = "Obtener lugar por ID")
+    @Operation(summary = "Obtener lugar por ID", description = "Con includeArchived=true también busca en los lugares archivados")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Lugar encontrado"),
             @ApiResponse(responseCode = "404", description = "Lugar no encontrado")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Place> getPlaceById(@PathVariable Long id) {
-        Place place = service.findById(id);
+    public ResponseEntity<Place> getPlaceById(@PathVariable Long id,
+                                              @RequestParam(defaultValue = "false") boolean includeArchived) {
+        Place place = service.findById(id, includeArchived);
         return place != null ?
                 new ResponseEntity<>(place, HttpStatus.OK) :
                 new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -90,11 +118,18 @@ public class PlaceController {
     @Operation(summary = "Actualizar parcialmente un lugar")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Lugar actualizado parcialmente"),
+            @ApiResponse(responseCode = "400", description = "Campos o tipos no válidos en el patch"),
             @ApiResponse(responseCode = "404", description = "Lugar no encontrado")
     })
-    @PatchMapping("/{id}")
+    @PatchMapping(value = "/{id}", consumes = {
+            "application/merge-patch+json", "application/json", "application/x-jackson-smile", "application/cbor"})
     public ResponseEntity<Place> patchPlace(@PathVariable Long id, @RequestBody Map<String, Object> updates) {
-        Place updated = service.patch(id, updates);
+        Place updated;
+        try {
+            updated = service.patch(id, updates);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
         return updated != null ?
                 new ResponseEntity<>(updated, HttpStatus.OK) :
                 new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -117,32 +152,48 @@ public class PlaceController {
     }
 
     // Aceptar un lugar
-    @Operation(summary = "Aceptar un lugar", description = "Cambia el estado de un lugar a ACEPTADO")
+    @Operation(summary = "Aceptar un lugar", description = "Cambia el estado de un lugar a ACEPTADO. "
+            + "Con X-Moderador solo decide quien tiene el reclamo vigente; sin X-Moderador no se revisan los reclamos "
+            + "de la cola de moderación")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Lugar aceptado exitosamente"),
-            @ApiResponse(responseCode = "400", description = "No se pudo aceptar el lugar (ya estaba aceptado o no existe)")
+            @ApiResponse(responseCode = "400", description = "No se pudo aceptar el lugar (ya estaba aceptado o no existe)"),
+            @ApiResponse(responseCode = "409", description = "El lugar está reclamado por otro moderador")
     })
     @PostMapping("/{placeId}/aceptada")
-    public ResponseEntity<String> acceptPlace(@PathVariable Long placeId) {
-        if (service.acceptPlace(placeId)) {
-            return new ResponseEntity<>("Lugar aceptado.", HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>("Error al aceptar el lugar.", HttpStatus.BAD_REQUEST);
+    public ResponseEntity<String> acceptPlace(@PathVariable Long placeId,
+                                              @RequestHeader(value = "X-Moderador", required = false) String moderator) {
+        try {
+            if (service.acceptPlace(placeId, moderator)) {
+                return new ResponseEntity<>("Lugar aceptado.", HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>("Error al aceptar el lugar.", HttpStatus.BAD_REQUEST);
+            }
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
         }
     }
 
     // Rechazar un lugar
-    @Operation(summary = "Rechazar un lugar", description = "Cambia el estado de un lugar a RECHAZADO")
+    @Operation(summary = "Rechazar un lugar", description = "Cambia el estado de un lugar a RECHAZADO. "
+            + "Con X-Moderador solo decide quien tiene el reclamo vigente; sin X-Moderador no se revisan los reclamos "
+            + "de la cola de moderación")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Lugar rechazado exitosamente"),
-            @ApiResponse(responseCode = "400", description = "No se pudo rechazar el lugar (ya estaba rechazado o no existe)")
+            @ApiResponse(responseCode = "400", description = "No se pudo rechazar el lugar (ya estaba rechazado o no existe)"),
+            @ApiResponse(responseCode = "409", description = "El lugar está reclamado por otro moderador")
     })
     @PostMapping("/{placeId}/rechazada")
-    public ResponseEntity<String> rejectPlace(@PathVariable Long placeId) {
-        if (service.rejectPlace(placeId)) {
-            return new ResponseEntity<>("Lugar rechazado.", HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>("Error al rechazar el lugar.", HttpStatus.BAD_REQUEST);
+    public ResponseEntity<String> rejectPlace(@PathVariable Long placeId,
+                                              @RequestHeader(value = "X-Moderador", required = false) String moderator) {
+        try {
+            if (service.rejectPlace(placeId, moderator)) {
+                return new ResponseEntity<>("Lugar rechazado.", HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>("Error al rechazar el lugar.", HttpStatus.BAD_REQUEST);
+            }
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
         }
     }
 
@@ -152,10 +203,7 @@ public class PlaceController {
     @ApiResponse(responseCode = "404", description = "No se encontraron lugares pendientes")
     @GetMapping("/pendientes")  // Cambia de "/pending" a "/pendientes"
     public ResponseEntity<List<Place>> getPendingPlaces() {
-        List<Place> allPlaces = service.findAll();
-        List<Place> pendingPlaces = allPlaces.stream()
-                .filter(place -> place.getStatus() == PlaceStatus.pendiente)  // Asegúrate de que sea pendiete
-                .toList();
+        List<Place> pendingPlaces = service.findPendingPlaces();
         return new ResponseEntity<>(pendingPlaces, HttpStatus.OK);
     }
 
@@ -166,25 +214,20 @@ public class PlaceController {
     @ApiResponse(responseCode = "404", description = "No se encontraron lugares aceptados")
     @GetMapping("/aceptada")
     public ResponseEntity<List<Place>> getAcceptedPlaces() {
-        List<Place> allPlaces = service.findAll();
-        List<Place> acceptedPlaces = allPlaces.stream()
-                .filter(place -> place.getStatus() == PlaceStatus.aceptada)
-                .toList();
+        List<Place> acceptedPlaces = service.findAcceptedPlaces();
         return !acceptedPlaces.isEmpty() ?
                 new ResponseEntity<>(acceptedPlaces, HttpStatus.OK) :
                 new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
     // Mostrar los lugares rechazados
-    @Operation(summary = "Mostrar los lugares rechazados", description = "Devuelve una lista con los lugares que están en estado RECHAZADO")
+    @Operation(summary = "Mostrar los lugares rechazados", description = "Devuelve una lista con los lugares que están en estado RECHAZADO. "
+            + "Con includeArchived=true incluye también los rechazados ya archivados")
     @ApiResponse(responseCode = "200", description = "Lista de lugares rechazados encontrada")
     @ApiResponse(responseCode = "404", description = "No se encontraron lugares rechazados")
     @GetMapping("/rechazada")
-    public ResponseEntity<List<Place>> getRejectedPlaces() {
-        List<Place> allPlaces = service.findAll();
-        List<Place> rejectedPlaces = allPlaces.stream()
-                .filter(place -> place.getStatus() == PlaceStatus.rechazada)
-                .toList();
+    public ResponseEntity<List<Place>> getRejectedPlaces(@RequestParam(defaultValue = "false") boolean includeArchived) {
+        List<Place> rejectedPlaces = service.findRejectedPlaces(includeArchived);
         return !rejectedPlaces.isEmpty() ?
                 new ResponseEntity<>(rejectedPlaces, HttpStatus.OK) :
                 new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -0,0 +1,182 @@
+package eamelectiva.microserviciolugar.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envía las transacciones de solo lectura a una réplica sana y todo lo demás
+ * al primario.
+ *
+ * Una réplica deja de usarse si no responde o si su retraso supera el máximo
+ * configurado; sin réplicas sanas las lecturas van al primario. Después de
+ * una escritura, el resto de la petición lee del primario (ver
+ * {@link ReadYourWrites}).
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicIntegerArray healthy;  // 1 = sana
+    private final AtomicInteger next = new AtomicInteger();
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final ScheduledExecutorService healthCheck = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                      long maxLagSeconds, String lagQuery) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.healthy = new AtomicIntegerArray(replicas.size());
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagQuery = lagQuery;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+            healthy.set(i, 1);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadYourWrites.markWrite();
+            return PRIMARY;
+        }
+        if (ReadYourWrites.requiresPrimary()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            int candidate = (start + i) % size;
+            if (healthy.get(candidate) == 1) {
+                return candidate;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return getResolvedDefaultDataSource().getConnection();
+        }
+        try {
+            return replicas.get((Integer) key).getConnection();
+        } catch (SQLException e) {
+            // Réplica caída: se marca y la lectura se hace en el primario
+            markHealthy((Integer) key, false, e.getMessage());
+            return getResolvedDefaultDataSource().getConnection();
+        }
+    }
+
+    /**
+     * Comprueba conexión y retraso de cada réplica. Con la consulta de MariaDB,
+     * un servidor sin replicación configurada (por ejemplo una segunda base
+     * local en pruebas) se considera al día.
+     */
+    public void checkReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection()) {
+                if (lagQuery == null || lagQuery.isBlank()) {
+                    markHealthy(i, connection.isValid(2), "conexión no válida");
+                    continue;
+                }
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery(lagQuery)) {
+                    if (!rs.next()) {
+                        markHealthy(i, true, null);
+                        continue;
+                    }
+                    long lag = rs.getLong("Seconds_Behind_Master");
+                    boolean stopped = rs.wasNull();
+                    markHealthy(i, !stopped && lag <= maxLagSeconds,
+                            stopped ? "replicación detenida" : "retraso de " + lag + " s");
+                }
+            } catch (SQLException e) {
+                markHealthy(i, false, e.getMessage());
+            }
+        }
+    }
+
+    // Revisa las réplicas periódicamente en un hilo propio
+    public void startHealthCheck(long intervalMs) {
+        healthCheck.scheduleWithFixedDelay(this::checkReplicas, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Spring lo invoca al cerrar el contexto (método close inferido)
+    @Override
+    public void close() {
+        healthCheck.shutdownNow();
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("No se pudo cerrar el pool de la réplica: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * El primario y cada réplica. unwrap() sobre este DataSource resuelve con
+     * la transacción del hilo actual (fuera de una, el primario), así que quien
+     * quiera revisar los pools de Hikari los recorre aquí.
+     */
+    public List<DataSource> pools() {
+        List<DataSource> pools = new ArrayList<>(replicas.size() + 1);
+        pools.add(primary);
+        pools.addAll(replicas);
+        return pools;
+    }
+
+    public boolean isReplicaHealthy(int index) {
+        return healthy.get(index) == 1;
+    }
+
+    private void markHealthy(int index, boolean value, String reason) {
+        int previous = healthy.getAndSet(index, value ? 1 : 0);
+        if (previous != (value ? 1 : 0)) {
+            if (value) {
+                log.info("Réplica {} disponible de nuevo para lecturas", index);
+            } else {
+                log.warn("Réplica {} fuera de servicio para lecturas: {}", index, reason);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package eamelectiva.microserviciolugar.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Lectura de lo propio escrito: una vez que la petición actual escribió en el
+ * primario, sus lecturas posteriores también van al primario en lugar de a una
+ * réplica que quizá aún no tiene el cambio. El cliente puede forzarlo desde el
+ * inicio con el header X-Consistency: strong.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void markWrite() {
+        PRIMARY_ONLY.set(Boolean.TRUE);
+    }
+
+    public static boolean requiresPrimary() {
+        return PRIMARY_ONLY.get() != null;
+    }
+
+    public static void clear() {
+        PRIMARY_ONLY.remove();
+    }
+
+    // Una lectura puntual en el primario (por ejemplo para llenar una caché) sin
+    // cambiar a dónde van las siguientes lecturas de la petición
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (requiresPrimary()) {
+            return read.get();
+        }
+        markWrite();
+        try {
+            return read.get();
+        } finally {
+            clear();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package eamelectiva.microserviciolugar.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Réplicas de solo lectura (propiedades routing.*). El primario sigue siendo
+ * spring.datasource.*.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "routing")
+public class RoutingProperties {
+
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Una réplica con más retraso que esto deja de recibir lecturas
+    private long maxLagSeconds = 5;
+
+    private long checkIntervalMs = 2000;
+
+    // Consulta de retraso (MariaDB); vacía para solo comprobar la conexión
+    private String lagQuery = "SHOW SLAVE STATUS";
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,36 @@
+package eamelectiva.microserviciolugar.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Invalidación de cachés entre instancias (propiedades places.invalidation.*).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "places.invalidation")
+public class InvalidationProperties {
+
+    private boolean enabled = true;
+
+    private long pollIntervalMs = 500;
+
+    private int batchSize = 500;
+
+    // Un id saltado que no aparece en este tiempo se da por deshecho (rollback)
+    private long gapTimeoutMs = 10000;
+
+    private int maxGaps = 10000;
+
+    // Sin poder leer cambios durante este tiempo la caché local deja de usarse
+    private long maxStalenessMs = 5000;
+
+    // Mínimo entre recuentos de PlaceStats por cambios de otras instancias
+    private long statsRefreshMs = 5000;
+
+    private long retentionMinutes = 60;
+
+    private long cleanupIntervalMs = 600000;
+}
@@ -0,0 +1,231 @@
+package eamelectiva.microserviciolugar.events;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import eamelectiva.microserviciolugar.cache.WarmPlaceCache;
+import eamelectiva.microserviciolugar.model.PlaceChange;
+import eamelectiva.microserviciolugar.repository.PlaceChangeRepository;
+import eamelectiva.microserviciolugar.service.PlaceService;
+import eamelectiva.microserviciolugar.service.PlaceStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Invalidación de cachés entre instancias a través de la tabla lugar_cambio.
+ *
+ * Cada cambio se registra en la misma transacción que lo produce; cada
+ * instancia lee cada places.invalidation.poll-interval-ms las filas con id
+ * mayor que su cursor y quita de sus cachés (WarmPlaceCache y SingleFlight)
+ * los lugares que cambiaron en otra instancia, y los reenvía a los clientes
+ * SSE conectados aquí (PlaceEventStream). Esos cambios también dejan
+ * desactualizados los contadores de PlaceStats: se recuentan contra la base
+ * como mucho cada stats-refresh-ms.
+ *
+ * Con IDENTITY los ids se asignan al insertar pero se ven al confirmar, que
+ * puede ser en otro orden: un id saltado se sigue buscando hasta
+ * gap-timeout-ms (pasado eso se supone un rollback). Lo que se escape de
+ * aquí queda acotado por places.cache.ttl-seconds. Si no se puede leer la
+ * tabla durante max-staleness-ms, la caché local se desactiva hasta que
+ * vuelva a leerse.
+ *
+ * El retraso se mide con el reloj de cada instancia (deben estar
+ * sincronizados con NTP) en places.invalidation.lag.
+ */
+@Component
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class PlaceChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(PlaceChangeFeed.class);
+
+    private final PlaceChangeRepository repository;
+    private final TransactionTemplate transactions;
+    private final WarmPlaceCache cache;
+    private final PlaceService places;
+    private final PlaceStats stats;
+    private final PlaceEventStream stream;
+    private final InvalidationProperties properties;
+    private final ScheduledExecutorService poller;
+    private final Timer lag;
+    private final Counter applied;
+
+    // Identifica las filas escritas por esta instancia
+    private final String origin = UUID.randomUUID().toString();
+
+    // Solo los toca el hilo de lectura
+    private long cursor = -1;  // Sin inicializar hasta la primera lectura
+    private final Map<Long, Long> gaps = new HashMap<>();  // id saltado -> cuándo se vio (nanoTime)
+    private boolean more;
+    private boolean statsStale;
+    private long lastStatsRefresh = System.nanoTime();
+
+    private volatile long lastSuccess = System.nanoTime();
+    private volatile boolean suspended;
+
+    public PlaceChangeFeed(PlaceChangeRepository repository, PlatformTransactionManager transactionManager,
+                           WarmPlaceCache cache, PlaceService places, PlaceStats stats, PlaceEventStream stream,
+                           InvalidationProperties properties, MeterRegistry registry) {
+        this.repository = repository;
+        // Lectura y escritura: va a la base principal, sin el retraso de una réplica
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.cache = cache;
+        this.places = places;
+        this.stats = stats;
+        this.stream = stream;
+        this.properties = properties;
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lugar-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lag = Timer.builder("places.invalidation.lag")
+                .description("Desde el cambio en otra instancia hasta quitarlo de la caché local")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.applied = Counter.builder("places.invalidation.applied").register(registry);
+        Gauge.builder("places.invalidation.staleness", this, feed -> (System.nanoTime() - feed.lastSuccess) / 1e9)
+                .description("Segundos desde la última lectura correcta de lugar_cambio")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    // Hilo propio: el planificador de Spring es compartido y el archivado puede ocuparlo minutos
+    @PostConstruct
+    void start() {
+        if (properties.isEnabled()) {
+            poller.scheduleWithFixedDelay(this::poll, properties.getPollIntervalMs(),
+                    properties.getPollIntervalMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Antes del commit: la fila se confirma (o se deshace) junto con el cambio
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void record(PlaceChangedEvent event) {
+        if (properties.isEnabled()) {
+            repository.save(new PlaceChange(null, event.placeId(), event.type(), event.status(), origin, Instant.now()));
+        }
+    }
+
+    void poll() {
+        try {
+            do {
+                List<PlaceChange> changes = transactions.execute(status -> read());
+                changes.forEach(this::apply);
+            } while (more);
+            refreshStats();
+            lastSuccess = System.nanoTime();
+            if (suspended) {
+                suspended = false;
+                cache.resume();
+                log.info("Cambios de otras instancias al día: caché de lugares reactivada");
+            }
+        } catch (RuntimeException e) {
+            long staleMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastSuccess);
+            if (!suspended && staleMs >= properties.getMaxStalenessMs()) {
+                suspended = true;
+                cache.suspend();
+                log.warn("Sin leer cambios de otras instancias desde hace {} ms, caché de lugares desactivada: {}",
+                        staleMs, e.getMessage());
+            } else {
+                log.debug("No se pudo leer lugar_cambio: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Filas nuevas (id > cursor) y las de ids saltados que ya se confirmaron
+    private List<PlaceChange> read() {
+        more = false;
+        if (cursor < 0) {
+            // Al arrancar no hay nada en caché que dependa de cambios anteriores
+            // (la copia en disco se valida aparte contra la base)
+            Long max = repository.findMaxId();
+            cursor = max != null ? max : 0;
+            return List.of();
+        }
+        List<PlaceChange> found = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            for (PlaceChange late : repository.findAllById(gaps.keySet())) {
+                gaps.remove(late.getId());
+                found.add(late);
+            }
+        }
+        List<PlaceChange> fresh = repository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(properties.getBatchSize()));
+        long now = System.nanoTime();
+        for (PlaceChange change : fresh) {
+            for (long missing = cursor + 1; missing < change.getId() && gaps.size() < properties.getMaxGaps(); missing++) {
+                gaps.put(missing, now);
+            }
+            cursor = change.getId();
+        }
+        found.addAll(fresh);
+        long timeout = TimeUnit.MILLISECONDS.toNanos(properties.getGapTimeoutMs());
+        gaps.values().removeIf(seen -> now - seen > timeout);
+        more = fresh.size() == properties.getBatchSize();
+        return found;
+    }
+
+    private void apply(PlaceChange change) {
+        if (origin.equals(change.getOrigin())) {
+            return;
+        }
+        cache.evict(change.getPlaceId());
+        places.evictRemote(change.getPlaceId());
+        statsStale = true;
+        // Directo al stream y no con publishEvent: record() volvería a registrarlo en lugar_cambio
+        stream.onPlaceChanged(new PlaceChangedEvent(change.getType(), change.getPlaceId(), change.getStatus(),
+                change.getCreatedAt()));
+        Duration delay = Duration.between(change.getCreatedAt(), Instant.now());
+        lag.record(delay.isNegative() ? Duration.ZERO : delay);
+        applied.increment();
+    }
+
+    // Un GROUP BY por intervalo aunque lleguen muchos cambios; el último pendiente se recuenta después
+    private void refreshStats() {
+        long now = System.nanoTime();
+        if (statsStale && now - lastStatsRefresh >= TimeUnit.MILLISECONDS.toNanos(properties.getStatsRefreshMs())) {
+            statsStale = false;
+            lastStatsRefresh = now;
+            stats.refresh();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${places.invalidation.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(properties.getRetentionMinutes()));
+        Integer deleted = transactions.execute(status -> repository.deleteOlderThan(cutoff));
+        if (deleted != null && deleted > 0) {
+            log.debug("Borrados {} cambios de lugares anteriores a {}", deleted, cutoff);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+}
@@ -0,0 +1,13 @@
+package eamelectiva.microserviciolugar.events;
+
+import java.time.Instant;
+
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+
+// Evento ligero que se publica cuando un lugar cambia (status es null si se eliminó)
+public record PlaceChangedEvent(PlaceEventType type, Long placeId, PlaceStatus status, Instant timestamp) {
+
+    public static PlaceChangedEvent of(PlaceEventType type, Long placeId, PlaceStatus status) {
+        return new PlaceChangedEvent(type, placeId, status, Instant.now());
+    }
+}
@@ -0,0 +1,229 @@
+package eamelectiva.microserviciolugar.events;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Difunde por Server-Sent Events los cambios de lugares ya confirmados.
+ *
+ * Cada cliente tiene un buffer acotado; si se llena (cliente lento) se le
+ * desconecta en lugar de frenar al resto. Los últimos eventos se guardan en
+ * un anillo en memoria para poder reanudar con el header Last-Event-ID.
+ *
+ * Los ids llevan el prefijo de este arranque ("época-secuencia"): la
+ * secuencia vuelve a 0 al reiniciar y cada instancia tiene la suya, así que
+ * un Last-Event-ID de otro arranque o de otra instancia recibe "reset".
+ */
+@Component
+public class PlaceEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(PlaceEventStream.class);
+
+    private final int replaySize;
+    private final int clientBuffer;
+    private final long timeoutMs;
+
+    // Anillo de repetición y secuencia; protegidos por lock. Un ReentrantLock y no
+    // synchronized: con hilos virtuales, esperar dentro de un monitor fija el hilo
+    // portador (JDK 21) y aquí se encola en el pool de entrega
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Entry> replay;
+    private long sequence;
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService delivery;
+    private final ScheduledExecutorService heartbeat;
+
+    public PlaceEventStream(@Value("${places.events.replay-size:256}") int replaySize,
+                            @Value("${places.events.client-buffer:64}") int clientBuffer,
+                            @Value("${places.events.timeout-ms:1800000}") long timeoutMs,
+                            @Value("${places.events.heartbeat-ms:15000}") long heartbeatMs,
+                            @Value("${places.events.delivery-threads:4}") int deliveryThreads) {
+        this.replaySize = replaySize;
+        this.clientBuffer = clientBuffer;
+        this.timeoutMs = timeoutMs;
+        this.replay = new ArrayDeque<>(replaySize);
+        this.delivery = Executors.newFixedThreadPool(deliveryThreads, daemon("place-events-"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("place-events-heartbeat-"));
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registra un nuevo cliente. Si trae Last-Event-ID se le reenvían los
+     * eventos posteriores que sigan en el anillo; si ese ID ya salió del
+     * anillo o es de otro arranque recibe un evento "reset" para que vuelva a
+     * cargar las listas.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(clientBuffer));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> disconnect(subscriber));
+        emitter.onError(e -> disconnect(subscriber));
+
+        lock.lock();
+        try {
+            if (lastEventId != null) {
+                long last = position(lastEventId);
+                Entry oldest = replay.peekFirst();
+                long missed = sequence - last;
+                boolean lost = last < 0 || oldest != null && last < oldest.id() - 1;
+                if (lost || missed < 0 || missed > clientBuffer) {
+                    subscriber.queue.offer(new Entry(sequence, null));
+                } else {
+                    replay.stream().filter(entry -> entry.id() > last).forEach(subscriber.queue::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    // Se ejecuta tras el commit; sin transacción activa se ejecuta de inmediato
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlaceChanged(PlaceChangedEvent event) {
+        lock.lock();
+        try {
+            Entry entry = new Entry(++sequence, event);
+            if (replay.size() == replaySize) {
+                replay.pollFirst();
+            }
+            replay.addLast(entry);
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(entry)) {
+                    log.warn("Cliente SSE lento desconectado (buffer de {} eventos lleno)", clientBuffer);
+                    disconnect(subscriber);
+                    continue;
+                }
+                schedule(subscriber);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Secuencia de un id de este arranque; -1 si es de otro o no se entiende
+    long position(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !epoch.equals(eventId.substring(0, dash))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    String eventId(long position) {
+        return epoch + "-" + position;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // Entrega la cola del cliente en el pool, sin más de un drenado a la vez por cliente
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            delivery.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Entry entry;
+            while ((entry = subscriber.queue.poll()) != null) {
+                SseEmitter.SseEventBuilder message = SseEmitter.event().id(eventId(entry.id()));
+                if (entry.event() == null) {
+                    message.name("reset").data("{}", MediaType.APPLICATION_JSON);
+                } else {
+                    message.name(entry.event().type().name()).data(entry.event(), MediaType.APPLICATION_JSON);
+                }
+                subscriber.emitter.send(message);
+            }
+        } catch (IOException | IllegalStateException e) {
+            disconnect(subscriber);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        schedule(subscriber);  // Eventos que llegaron mientras se vaciaba la cola
+    }
+
+    private void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                disconnect(subscriber);
+            }
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.queue.clear();
+            subscriber.emitter.complete();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        delivery.shutdownNow();
+        List.copyOf(subscribers).forEach(this::disconnect);
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // event == null representa un "reset" (el cliente perdió eventos)
+    private record Entry(long id, PlaceChangedEvent event) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Entry> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<Entry> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
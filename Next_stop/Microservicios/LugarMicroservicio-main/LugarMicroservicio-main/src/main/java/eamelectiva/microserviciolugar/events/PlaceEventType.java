@@ -0,0 +1,10 @@
+package eamelectiva.microserviciolugar.events;
+
+public enum PlaceEventType {
+    creada,
+    actualizada,
+    aceptada,
+    rechazada,
+    eliminada,
+    archivada
+}
@@ -0,0 +1,29 @@
+package eamelectiva.microserviciolugar.jfr;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Hibernate crea una instancia por sesión (hibernate.session.events.auto) y
+ * avisa al empezar y terminar cada flush; con eso se emite un FlushEvent.
+ */
+public class FlushEventListener implements SessionEventListener {
+
+    private FlushEvent current;
+
+    @Override
+    public void flushStart() {
+        FlushEvent event = new FlushEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            current = event;
+        }
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        if (current != null) {
+            current.finish(numberOfEntities, numberOfCollections);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package eamelectiva.microserviciolugar.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Petición HTTP completa; JfrReport reparte su duración entre los eventos anidados
+@Name("nextstop.HttpRequest")
+@Label("Petición HTTP")
+@Category({"Next Stop", "Lugar"})
+@StackTrace(false)
+public final class HttpRequestEvent extends jdk.jfr.Event {
+
+    @Label("Operación")
+    String operation;
+
+    @Label("Estado HTTP")
+    int status;
+
+    void finish(String method, String route, int status) {
+        end();
+        if (shouldCommit()) {
+            this.operation = method + " " + route;
+            this.status = status;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package eamelectiva.microserviciolugar.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Llamada HTTP a otro servicio (RestTemplate), p. ej. al de solicitudes
+@Name("nextstop.RemoteCall")
+@Label("Llamada remota")
+@Category({"Next Stop", "Lugar"})
+@StackTrace(false)
+public final class RemoteCallEvent extends jdk.jfr.Event {
+
+    @Label("Operación")
+    String operation;
+
+    @Label("Estado HTTP")
+    int status;
+
+    void finish(String method, String host, String path, int status) {
+        end();
+        if (shouldCommit()) {
+            this.operation = method + " " + host + path;
+            this.status = status;
+            commit();
+        }
+    }
+}
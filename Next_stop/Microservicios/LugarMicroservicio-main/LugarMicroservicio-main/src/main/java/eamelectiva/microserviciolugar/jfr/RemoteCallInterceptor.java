@@ -0,0 +1,30 @@
+package eamelectiva.microserviciolugar.jfr;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+// Emite un RemoteCallEvent por cada llamada del RestTemplate (estado 0 si no hubo respuesta)
+public class RemoteCallInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        RemoteCallEvent event = new RemoteCallEvent();
+        if (!event.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        event.begin();
+        int status = 0;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = response.getStatusCode().value();
+            return response;
+        } finally {
+            event.finish(request.getMethod().name(), request.getURI().getHost(), request.getURI().getPath(), status);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package eamelectiva.microserviciolugar.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Registra una fracción de las sentencias SQL (sql.trace.sample-rate) en lugar de todas
+public class SampledSqlInspector implements StatementInspector {
+
+    private static final Logger log = LoggerFactory.getLogger(SampledSqlInspector.class);
+
+    private final double rate;
+
+    public SampledSqlInspector(double rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (ThreadLocalRandom.current().nextDouble() < rate && log.isInfoEnabled()) {
+            log.info("SQL (muestra): {}", sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,41 @@
+package eamelectiva.microserviciolugar.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Lugar rechazado movido fuera de la tabla "lugar" por el archivado (conserva su ID)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "lugar_archivo")
+public class ArchivedPlace {
+    @Id
+    private Long id;
+    @Column(nullable = false)
+    private String name;
+    @Column(length = 500)
+    private String description;
+    @Enumerated(EnumType.STRING)
+    private PlaceStatus status;
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    // Misma forma que devuelve la API para los lugares activos
+    public Place toPlace() {
+        return new Place(id, name, description, status, updatedAt, null, null);
+    }
+}
@@ -0,0 +1,11 @@
+package eamelectiva.microserviciolugar.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Lugares entregados a un moderador por la cola de moderación. Si no decide
+ * antes de expiresAt, vuelven a la cola.
+ */
+public record ModerationClaim(String moderator, Instant expiresAt, List<Place> places) {
+}
@@ -1,5 +1,7 @@
 package eamelectiva.microserviciolugar.model;
 
+import java.time.Instant;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -7,7 +9,13 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -18,7 +26,8 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "lugar")
+@Table(name = "lugar", indexes = @Index(name = "idx_lugar_status_updated", columnList = "status, updated_at"))
+@DynamicUpdate  // El UPDATE solo incluye las columnas modificadas
 
 public class Place {
     @Id
@@ -30,4 +39,16 @@ public class Place {
     private String description;
     @Enumerated(EnumType.STRING)
     private PlaceStatus status;
+    // Último cambio; lo usa el archivado de lugares rechazados
+    @JsonIgnore
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+    // Reclamo de moderación: quién lo revisa y hasta cuándo (ver ModerationQueue)
+    @JsonIgnore
+    @Column(name = "claimed_by", length = 100)
+    private String claimedBy;
+    @JsonIgnore
+    @Column(name = "claim_expires_at")
+    private Instant claimExpiresAt;
 }
@@ -0,0 +1,44 @@
+package eamelectiva.microserviciolugar.model;
+
+import java.time.Instant;
+
+import eamelectiva.microserviciolugar.events.PlaceEventType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Cambio de un lugar confirmado por alguna instancia; las demás lo leen para invalidar sus cachés
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "lugar_cambio", indexes = @Index(name = "idx_lugar_cambio_created_at", columnList = "created_at"))
+public class PlaceChange {
+    // Creciente: es el cursor de lectura de cada instancia
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "place_id", nullable = false)
+    private Long placeId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PlaceEventType type;
+    @Enumerated(EnumType.STRING)
+    private PlaceStatus status;
+    // Instancia que hizo el cambio (ella ya invalidó su caché al confirmar)
+    @Column(nullable = false, length = 36)
+    private String origin;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
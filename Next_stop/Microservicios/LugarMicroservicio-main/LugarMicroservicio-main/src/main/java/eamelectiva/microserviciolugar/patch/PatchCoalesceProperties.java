@@ -0,0 +1,28 @@
+package eamelectiva.microserviciolugar.patch;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Agrupación de PATCH al mismo id (propiedades patch.coalesce.*).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "patch.coalesce")
+public class PatchCoalesceProperties {
+
+    private boolean enabled = false;
+
+    // true: la respuesta espera al commit. false: write-behind, se responde con
+    // el resultado previsto y se escribe después (un cierre abrupto pierde la ventana)
+    private boolean strict = true;
+
+    private long windowMs = 20;
+
+    private int flushThreads = 4;
+
+    // Espera máxima del modo estricto
+    private long timeoutMs = 5000;
+}
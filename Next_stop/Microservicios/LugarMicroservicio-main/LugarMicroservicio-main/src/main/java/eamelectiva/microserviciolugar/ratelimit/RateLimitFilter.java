@@ -0,0 +1,228 @@
+package eamelectiva.microserviciolugar.ratelimit;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import eamelectiva.microserviciolugar.datasource.ReadWriteRoutingDataSource;
+import eamelectiva.microserviciolugar.warmup.Warmup;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limita el tráfico de /api/** antes de que llegue a los controladores.
+ *
+ * Cada petición se clasifica en un presupuesto (lectura, escritura o llamada
+ * remota). Un token bucket por cliente devuelve 429 cuando un cliente excede
+ * su cuota, y un tope de concurrencia por presupuesto devuelve 503 cuando el
+ * servicio está saturado, de modo que un cliente en bucle no deja a todos los
+ * hilos de Tomcat esperando al pool de Hikari. El tope se reduce a la mitad
+ * mientras haya demasiados hilos esperando una conexión, en el primario o en
+ * cualquiera de las réplicas.
+ *
+ * El cliente se identifica por el usuario autenticado o, si no hay, por la IP
+ * de la conexión; un header elegido por el cliente permitiría saltarse la
+ * cuota cambiándolo en cada petición. Con server.forward-headers-strategy=native,
+ * Tomcat toma la IP de X-Forwarded-For solo cuando la conexión viene de
+ * server.tomcat.remoteip.internal-proxies; de cualquier otro origen el header
+ * se ignora.
+ * Los buckets sin uso se descartan en un barrido periódico y, si aun así se
+ * llega a MAX_TRACKED_CLIENTS, los clientes nuevos comparten un bucket por
+ * presupuesto hasta el siguiente barrido.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+    private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    enum BudgetType { read, write, remote }
+
+    private final RateLimitProperties properties;
+    private final ObjectProvider<DataSource> dataSource;
+    private final Warmup warmup;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final List<String[]> remoteEndpoints;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<BudgetType, TokenBucket> overflow = new EnumMap<>(BudgetType.class);
+    private final Map<BudgetType, AtomicInteger> inFlight = new EnumMap<>(BudgetType.class);
+    private final Map<BudgetType, Counter> admitted = new EnumMap<>(BudgetType.class);
+    private final Map<BudgetType, Counter> throttled = new EnumMap<>(BudgetType.class);
+    private final Map<BudgetType, Counter> shed = new EnumMap<>(BudgetType.class);
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectProvider<DataSource> dataSource,
+                           MeterRegistry registry, Warmup warmup) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.warmup = warmup;
+        this.remoteEndpoints = properties.getRemoteEndpoints().stream()
+                .map(endpoint -> endpoint.trim().split("\\s+", 2))
+                .toList();
+        long now = System.nanoTime();
+        for (BudgetType type : BudgetType.values()) {
+            RateLimitProperties.Budget budget = budget(type);
+            overflow.put(type, new TokenBucket(budget.getBurst(), budget.getRequestsPerSecond(), now));
+            AtomicInteger counter = new AtomicInteger();
+            inFlight.put(type, counter);
+            Gauge.builder("ratelimit.inflight", counter, AtomicInteger::get).tag("budget", type.name()).register(registry);
+            admitted.put(type, counter(registry, type, "admitted"));
+            throttled.put(type, counter(registry, type, "throttled"));
+            shed.put(type, counter(registry, type, "shed"));
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, BudgetType type, String outcome) {
+        return Counter.builder("ratelimit.requests")
+                .description("Peticiones por presupuesto y resultado del limitador")
+                .tag("budget", type.name())
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Las peticiones del calentamiento de arranque no consumen cuota
+        return !properties.isEnabled() || !request.getRequestURI().startsWith("/api/") || warmup.isWarmupRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        BudgetType type = classify(request);
+        RateLimitProperties.Budget budget = budget(type);
+
+        long now = System.nanoTime();
+        long waitNanos = bucket(clientId(request), type, budget, now).tryConsume(now);
+        if (waitNanos > 0) {
+            throttled.get(type).increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+            return;
+        }
+
+        AtomicInteger running = inFlight.get(type);
+        int limit = poolUnderPressure() ? Math.max(1, budget.getMaxConcurrent() / 2) : budget.getMaxConcurrent();
+        if (running.incrementAndGet() > limit) {
+            running.decrementAndGet();
+            shed.get(type).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, properties.getShedRetryAfterSeconds());
+            return;
+        }
+        try {
+            admitted.get(type).increment();
+            chain.doFilter(request, response);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    BudgetType classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        for (String[] endpoint : remoteEndpoints) {
+            if (endpoint.length == 2 && endpoint[0].equalsIgnoreCase(method) && matcher.match(endpoint[1], path)) {
+                return BudgetType.remote;
+            }
+        }
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)
+                ? BudgetType.read : BudgetType.write;
+    }
+
+    private RateLimitProperties.Budget budget(BudgetType type) {
+        return switch (type) {
+            case read -> properties.getRead();
+            case write -> properties.getWrite();
+            case remote -> properties.getRemote();
+        };
+    }
+
+    private static String clientId(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "user:" + principal.getName() : request.getRemoteAddr();
+    }
+
+    private TokenBucket bucket(String client, BudgetType type, RateLimitProperties.Budget budget, long now) {
+        String key = type.name() + '|' + client;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= MAX_TRACKED_CLIENTS) {
+            return overflow.get(type);
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(budget.getBurst(), budget.getRequestsPerSecond(), now));
+    }
+
+    // Descarta los buckets sin uso fuera del camino de las peticiones
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-interval-ms:60000}")
+    void sweep() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> now - bucket.lastUsed() > IDLE_BUCKET_NANOS);
+    }
+
+    int trackedClients() {
+        return buckets.size();
+    }
+
+    // Hilos esperando una conexión en alguno de los pools de Hikari (primario o réplicas)
+    private boolean poolUnderPressure() {
+        DataSource ds = dataSource.getIfAvailable();
+        if (ds == null) {
+            return false;
+        }
+        try {
+            // Con enrutamiento, unwrap(HikariDataSource) solo llegaría al primario
+            List<DataSource> pools = ds.isWrapperFor(ReadWriteRoutingDataSource.class)
+                    ? ds.unwrap(ReadWriteRoutingDataSource.class).pools() : List.of(ds);
+            for (DataSource candidate : pools) {
+                if (candidate.isWrapperFor(HikariDataSource.class)) {
+                    HikariPoolMXBean pool = candidate.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                    if (pool != null && pool.getThreadsAwaitingConnection() > properties.getMaxPoolWaiters()) {
+                        return true;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+        return false;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(status == HttpStatus.TOO_MANY_REQUESTS
+                ? "Demasiadas peticiones, intente más tarde."
+                : "Servicio saturado, intente más tarde.");
+    }
+}
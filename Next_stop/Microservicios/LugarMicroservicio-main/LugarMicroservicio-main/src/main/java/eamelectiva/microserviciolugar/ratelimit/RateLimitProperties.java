@@ -0,0 +1,50 @@
+package eamelectiva.microserviciolugar.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Presupuestos de tráfico por tipo de endpoint (propiedades ratelimit.*).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Con más hilos que esto esperando una conexión de Hikari se reduce la concurrencia a la mitad
+    private int maxPoolWaiters = 5;
+
+    // Segundos sugeridos en Retry-After cuando se descarta por carga (503)
+    private long shedRetryAfterSeconds = 1;
+
+    // Endpoints que llaman a otros servicios, en formato "METODO /ruta"
+    private List<String> remoteEndpoints = new ArrayList<>();
+
+    private Budget read = new Budget(50, 100, 64);
+    private Budget write = new Budget(10, 20, 16);
+    private Budget remote = new Budget(2, 5, 4);
+
+    @Getter
+    @Setter
+    public static class Budget {
+        private double requestsPerSecond;  // Recarga del token bucket por cliente
+        private int burst;                 // Capacidad del bucket
+        private int maxConcurrent;         // Peticiones simultáneas en todo el servicio
+
+        public Budget() {
+        }
+
+        public Budget(double requestsPerSecond, int burst, int maxConcurrent) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = burst;
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+}
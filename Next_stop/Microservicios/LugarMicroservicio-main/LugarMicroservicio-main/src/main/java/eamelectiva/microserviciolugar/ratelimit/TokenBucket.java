@@ -0,0 +1,38 @@
+package eamelectiva.microserviciolugar.ratelimit;
+
+// Token bucket por cliente y presupuesto
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+    private volatile long lastUsed;
+
+    TokenBucket(double capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = now;
+        this.lastUsed = now;
+    }
+
+    /**
+     * Intenta consumir un token. Devuelve 0 si se admitió o los nanosegundos
+     * que faltan para que haya un token disponible.
+     */
+    synchronized long tryConsume(long now) {
+        lastUsed = now;
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    long lastUsed() {
+        return lastUsed;
+    }
+}
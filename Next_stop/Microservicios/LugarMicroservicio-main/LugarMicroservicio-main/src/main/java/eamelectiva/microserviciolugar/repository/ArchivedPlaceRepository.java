@@ -0,0 +1,26 @@
+package eamelectiva.microserviciolugar.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import eamelectiva.microserviciolugar.model.ArchivedPlace;
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+
+@Repository
+public interface ArchivedPlaceRepository extends JpaRepository<ArchivedPlace, Long> {
+
+    List<ArchivedPlace> findByStatus(PlaceStatus status);
+
+    // Copia al archivo los lugares indicados (que deben seguir rechazados)
+    @Modifying
+    @Query(value = "INSERT INTO lugar_archivo (id, name, description, status, updated_at, archived_at) "
+            + "SELECT id, name, description, status, updated_at, :archivedAt FROM lugar "
+            + "WHERE id IN (:ids) AND status = 'rechazada'", nativeQuery = true)
+    int copyFromPlaces(@Param("ids") List<Long> ids, @Param("archivedAt") Instant archivedAt);
+}
@@ -0,0 +1,27 @@
+package eamelectiva.microserviciolugar.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import eamelectiva.microserviciolugar.model.PlaceChange;
+
+@Repository
+public interface PlaceChangeRepository extends JpaRepository<PlaceChange, Long> {
+
+    List<PlaceChange> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT MAX(c.id) FROM PlaceChange c")
+    Long findMaxId();
+
+    // Usa el índice de created_at
+    @Modifying
+    @Query("DELETE FROM PlaceChange c WHERE c.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
@@ -1,11 +1,85 @@
 package eamelectiva.microserviciolugar.repository;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 import eamelectiva.microserviciolugar.model.Place;
+import eamelectiva.microserviciolugar.model.PlaceStatus;
 
 @Repository
 public interface PlaceRepository extends JpaRepository<Place, Long>{
 
+    // Listados por estado sin traer toda la tabla
+    List<Place> findByStatus(PlaceStatus status);
+
+    // Filas [estado, cantidad] para los contadores de /api/places/stats
+    @Query("SELECT p.status, COUNT(p) FROM Place p GROUP BY p.status")
+    List<Object[]> countByStatus();
+
+    // Filas [id, updated_at] para validar la copia en disco de la caché
+    @Query("SELECT p.id, p.updatedAt FROM Place p WHERE p.id IN :ids")
+    List<Object[]> findUpdatedAtByIds(@Param("ids") List<Long> ids);
+
+    @Query("SELECT p.status FROM Place p WHERE p.id = :id")
+    Optional<PlaceStatus> findStatusById(@Param("id") Long id);
+
+    // Lote de rechazados más antiguos que el corte; bloquea solo esas filas y
+    // salta las que otra transacción tenga tomadas
+    @Query(value = "SELECT id FROM lugar WHERE status = 'rechazada' AND updated_at < :cutoff "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockArchivableIds(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM Place p WHERE p.id IN :ids AND p.status = eamelectiva.microserviciolugar.model.PlaceStatus.rechazada")
+    int deleteRejectedByIds(@Param("ids") List<Long> ids);
+
+    // Lote de rechazados anteriores a la columna updated_at, con el mismo bloqueo
+    // por lote que el archivado
+    @Query(value = "SELECT id FROM lugar WHERE status = 'rechazada' AND updated_at IS NULL "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockRejectedWithoutDate(@Param("limit") int limit);
+
+    // Esos rechazados empiezan a contar desde ahora
+    @Modifying
+    @Query(value = "UPDATE lugar SET updated_at = :now WHERE id IN (:ids) AND updated_at IS NULL", nativeQuery = true)
+    int stampUpdatedAt(@Param("ids") List<Long> ids, @Param("now") Instant now);
+
+    // Cola de moderación: siguientes pendientes sin reclamo vigente (o ya reclamados
+    // por el mismo moderador). SKIP LOCKED hace que dos moderadores que reclaman a
+    // la vez reciban filas distintas
+    @Query(value = "SELECT id FROM lugar WHERE status = 'pendiente' "
+            + "AND (claim_expires_at IS NULL OR claim_expires_at < :now OR claimed_by = :moderator) "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockClaimableIds(@Param("moderator") String moderator, @Param("now") Instant now,
+                                @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Place p SET p.claimedBy = :moderator, p.claimExpiresAt = :expiresAt WHERE p.id IN :ids")
+    int claim(@Param("ids") List<Long> ids, @Param("moderator") String moderator, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("UPDATE Place p SET p.claimedBy = null, p.claimExpiresAt = null "
+            + "WHERE p.id IN :ids AND p.claimedBy = :moderator")
+    int release(@Param("ids") List<Long> ids, @Param("moderator") String moderator);
+
+    // Devuelve a la cola los reclamos abandonados
+    @Modifying
+    @Query("UPDATE Place p SET p.claimedBy = null, p.claimExpiresAt = null "
+            + "WHERE p.claimExpiresAt IS NOT NULL AND p.claimExpiresAt < :now")
+    int releaseExpired(@Param("now") Instant now);
+
+    // Aceptar/rechazar: bloquea la fila para que dos moderadores no decidan a la vez
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Place p WHERE p.id = :id")
+    Optional<Place> lockById(@Param("id") Long id);
 }
@@ -0,0 +1,88 @@
+package eamelectiva.microserviciolugar.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import eamelectiva.microserviciolugar.model.ModerationClaim;
+import eamelectiva.microserviciolugar.model.Place;
+import eamelectiva.microserviciolugar.repository.PlaceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cola de moderación de lugares pendientes. Cada moderador reclama los
+ * siguientes N lugares libres con un arriendo (claimed_by, claim_expires_at);
+ * mientras dure, nadie más los recibe.
+ *
+ * El reclamo bloquea las filas solo durante su propia transacción y con SKIP
+ * LOCKED, así varios moderadores reclaman en paralelo sin esperarse entre sí.
+ * Los reclamos vencidos se pueden volver a entregar de inmediato; además un
+ * barrido periódico los limpia.
+ */
+@Service
+public class ModerationQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ModerationQueue.class);
+
+    private final PlaceRepository places;
+    private final TransactionTemplate transactions;
+    private final Duration lease;
+    private final int maxClaim;
+    private final Counter claimed;
+    private final Counter expired;
+
+    public ModerationQueue(PlaceRepository places, PlatformTransactionManager transactionManager, MeterRegistry registry,
+                           @Value("${moderation.lease-seconds:300}") long leaseSeconds,
+                           @Value("${moderation.max-claim:50}") int maxClaim) {
+        this.places = places;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxClaim = maxClaim;
+        this.claimed = Counter.builder("moderation.claimed").register(registry);
+        this.expired = Counter.builder("moderation.expired").register(registry);
+    }
+
+    // Entrega hasta "count" pendientes; volver a reclamar renueva el arriendo de los propios
+    public ModerationClaim claim(String moderator, int count) {
+        int limit = Math.max(1, Math.min(count, maxClaim));
+        return transactions.execute(status -> {
+            Instant now = Instant.now();
+            Instant expiresAt = now.plus(lease);
+            List<Long> ids = places.lockClaimableIds(moderator, now, limit);
+            if (ids.isEmpty()) {
+                return new ModerationClaim(moderator, expiresAt, List.of());
+            }
+            places.claim(ids, moderator, expiresAt);
+            claimed.increment(ids.size());
+            List<Place> claimedPlaces = places.findAllById(ids);
+            return new ModerationClaim(moderator, expiresAt, claimedPlaces);
+        });
+    }
+
+    // Devuelve a la cola los lugares que el moderador no va a revisar
+    public int release(String moderator, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Integer released = transactions.execute(status -> places.release(ids, moderator));
+        return released != null ? released : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${moderation.sweep-interval-ms:60000}")
+    public void releaseExpiredClaims() {
+        Integer released = transactions.execute(status -> places.releaseExpired(Instant.now()));
+        if (released != null && released > 0) {
+            expired.increment(released);
+            log.info("{} reclamos de moderación vencidos vuelven a la cola", released);
+        }
+    }
+}
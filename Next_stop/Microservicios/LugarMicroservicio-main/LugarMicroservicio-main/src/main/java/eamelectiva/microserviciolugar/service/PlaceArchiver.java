@@ -0,0 +1,121 @@
+package eamelectiva.microserviciolugar.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import eamelectiva.microserviciolugar.events.PlaceChangedEvent;
+import eamelectiva.microserviciolugar.events.PlaceEventType;
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+import eamelectiva.microserviciolugar.repository.ArchivedPlaceRepository;
+import eamelectiva.microserviciolugar.repository.PlaceRepository;
+
+/**
+ * Mueve a lugar_archivo los lugares rechazados hace más de archive.max-age-days
+ * para que la tabla "lugar" solo tenga el catálogo vivo.
+ *
+ * Trabaja por lotes de archive.batch-size filas, cada uno en su propia
+ * transacción corta, así nunca mantiene bloqueos largos sobre la tabla. Lo
+ * mismo vale para fechar los rechazados que aún no tienen updated_at.
+ */
+@Component
+@ConditionalOnProperty(prefix = "archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PlaceArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(PlaceArchiver.class);
+
+    private final PlaceRepository places;
+    private final ArchivedPlaceRepository archive;
+    private final TransactionTemplate transactions;
+    private final ApplicationEventPublisher events;
+    private final PlaceStats stats;
+    private final Duration maxAge;
+    private final int batchSize;
+    private final long pauseMs;
+
+    public PlaceArchiver(PlaceRepository places, ArchivedPlaceRepository archive,
+                         PlatformTransactionManager transactionManager, ApplicationEventPublisher events,
+                         PlaceStats stats,
+                         @Value("${archive.max-age-days:30}") long maxAgeDays,
+                         @Value("${archive.batch-size:500}") int batchSize,
+                         @Value("${archive.pause-ms:100}") long pauseMs) {
+        this.places = places;
+        this.archive = archive;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.stats = stats;
+        this.maxAge = Duration.ofDays(maxAgeDays);
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(initialDelayString = "${archive.initial-delay-ms:60000}", fixedDelayString = "${archive.interval-ms:3600000}")
+    public void archiveRejectedPlaces() {
+        Instant now = Instant.now();
+        int stamped = inBatches(() -> stampBatch(now));
+        if (stamped > 0) {
+            log.info("{} lugares rechazados sin fecha empiezan a contar para el archivado", stamped);
+        }
+        Instant cutoff = Instant.now().minus(maxAge);
+        int total = inBatches(() -> archiveBatch(cutoff));
+        if (total > 0) {
+            log.info("Archivados {} lugares rechazados anteriores a {}", total, cutoff);
+        }
+    }
+
+    // Repite el lote mientras salga lleno
+    private int inBatches(IntSupplier batch) {
+        int total = 0;
+        int done;
+        do {
+            done = batch.getAsInt();
+            total += done;
+            if (done == batchSize && pauseMs > 0) {
+                try {
+                    Thread.sleep(pauseMs);  // Deja respirar al resto del tráfico entre lotes
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } while (done == batchSize);
+        return total;
+    }
+
+    // Un lote de rechazados sin fecha: se fechan con "now" para que cuenten desde hoy
+    int stampBatch(Instant now) {
+        Integer stamped = transactions.execute(status -> {
+            List<Long> ids = places.lockRejectedWithoutDate(batchSize);
+            return ids.isEmpty() ? 0 : places.stampUpdatedAt(ids, now);
+        });
+        return stamped != null ? stamped : 0;
+    }
+
+    // Un lote: bloquea las filas, las copia al archivo y las borra de la tabla activa
+    int archiveBatch(Instant cutoff) {
+        Integer moved = transactions.execute(status -> {
+            List<Long> ids = places.lockArchivableIds(cutoff, batchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            archive.copyFromPlaces(ids, Instant.now());
+            int deleted = places.deleteRejectedByIds(ids);
+            stats.removedAfterCommit(PlaceStatus.rechazada, deleted);
+            // Se entregan después del commit (cachés y stream SSE)
+            ids.forEach(id -> events.publishEvent(PlaceChangedEvent.of(PlaceEventType.archivada, id, PlaceStatus.rechazada)));
+            return deleted;
+        });
+        return moved != null ? moved : 0;
+    }
+}
@@ -1,29 +1,86 @@
 package eamelectiva.microserviciolugar.service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;  // Import agregado para comunicación
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import eamelectiva.microserviciolugar.cache.SingleFlight;
+import eamelectiva.microserviciolugar.cache.WarmPlaceCache;
+import eamelectiva.microserviciolugar.datasource.ReadYourWrites;
+import eamelectiva.microserviciolugar.events.PlaceChangedEvent;
+import eamelectiva.microserviciolugar.events.PlaceEventType;
+import eamelectiva.microserviciolugar.model.ArchivedPlace;
 import eamelectiva.microserviciolugar.model.Place;
 import eamelectiva.microserviciolugar.model.PlaceStatus;
+import eamelectiva.microserviciolugar.patch.MergePatch;
+import eamelectiva.microserviciolugar.patch.PatchCoalesceProperties;
+import eamelectiva.microserviciolugar.patch.PatchCoalescer;
+import eamelectiva.microserviciolugar.repository.ArchivedPlaceRepository;
 import eamelectiva.microserviciolugar.repository.PlaceRepository;
 
 @Service
+@EnableConfigurationProperties(PatchCoalesceProperties.class)
 public class PlaceService {
 
+    private static final Logger log = LoggerFactory.getLogger(PlaceService.class);
+
     private final PlaceRepository repository;
+    private final ArchivedPlaceRepository archive;
     private final RestTemplate restTemplate;  // Agregado para comunicación
+    private final ApplicationEventPublisher events;
+    // Lecturas idénticas concurrentes comparten una sola consulta
+    private final SingleFlight<String, Object> reads;
+    // Cuentas por estado de /api/places/stats
+    private final PlaceStats stats;
+    // Lecturas calientes (por id y aceptados), con copia en disco para arrancar en caliente
+    private final WarmPlaceCache cache;
+    // PATCH al mismo id dentro de la ventana: una sola escritura (patch.coalesce.*)
+    private final PatchCoalesceProperties coalesce;
+    private final PatchCoalescer<Long, Place> patches;
+    private final TransactionTemplate transactions;
+    // Solo la consulta que ejecuta la lectura abre la transacción (puede ir a una réplica)
+    private final TransactionTemplate readOnly;
 
     @Autowired
-    public PlaceService(PlaceRepository repository, RestTemplate restTemplate) {  // Inyección agregada
+    public PlaceService(PlaceRepository repository, RestTemplate restTemplate,  // Inyección agregada
+                        ApplicationEventPublisher events, MeterRegistry registry,
+                        ArchivedPlaceRepository archive, PlaceStats stats, WarmPlaceCache cache,
+                        PlatformTransactionManager transactionManager, PatchCoalesceProperties coalesce) {
         this.repository = repository;
+        this.archive = archive;
+        this.stats = stats;
+        this.cache = cache;
         this.restTemplate = restTemplate;
+        this.events = events;
+        this.reads = new SingleFlight<>("places", registry);
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.coalesce = coalesce;
+        this.patches = new PatchCoalescer<>("places", coalesce.getWindowMs(), coalesce.getFlushThreads(),
+                (id, list) -> transactions.execute(status -> applyPatches(id, list)), registry);
     }
 
     // Crear un nuevo lugar (de tu compañera, con default PENDING)
@@ -31,104 +88,211 @@ public class PlaceService {
         if (place.getStatus() == null) {
             place.setStatus(PlaceStatus.pendiente);
         }
-        return repository.save(place);
+        Place saved = repository.save(place);
+        invalidate(saved.getId());
+        stats.transitionAfterCommit(null, saved.getStatus());
+        publish(PlaceEventType.creada, saved);
+        return saved;
     }
 
-    // Buscar lugar por ID
+    // Buscar lugar por ID (solo lectura: el resultado puede compartirse entre peticiones).
+    // Sin @Transactional: un acierto de caché no abre transacción ni pide conexión
     public Place findById(Long id) {
-        return repository.findById(id).orElse(null);
+        if (writeBehind()) {
+            List<Map<String, Object>> pending = patches.pending(id);  // Antes de leer (ver PatchCoalescer.pending)
+            return withPending(load(id), pending);
+        }
+        return load(id);
+    }
+
+    // La caché solo se llena desde el primario: con una réplica atrasada, la carga que
+    // sigue a un commit guardaría el valor anterior durante todo el TTL. Quien debe
+    // leer del primario (X-Consistency: strong o tras escribir) no pasa por la caché
+    private Place load(Long id) {
+        if (ReadYourWrites.requiresPrimary()) {
+            return repository.findById(id).orElse(null);
+        }
+        Place cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        return (Place) reads.execute("id:" + id, () -> {
+            long generation = cache.generation();
+            Place place = ReadYourWrites.onPrimary(() -> repository.findById(id).orElse(null));
+            cache.put(id, place, generation);
+            return place;
+        });
+    }
+
+    // Buscar por ID; con includeArchived también busca en el archivo de rechazados
+    public Place findById(Long id, boolean includeArchived) {
+        Place place = findById(id);
+        if (place == null && includeArchived) {
+            return archive.findById(id).map(ArchivedPlace::toPlace).orElse(null);
+        }
+        return place;
     }
 
     // Obtener todos los lugares
+    @SuppressWarnings("unchecked")
     public List<Place> findAll() {
-        return repository.findAll();
+        return (List<Place>) reads.execute("all", () -> query(repository::findAll));
     }
 
     // Actualizar un lugar existente
+    @Transactional
     public Place update(Place place) {
-        return repository.save(place);
+        PlaceStatus before = place.getId() != null ? repository.findStatusById(place.getId()).orElse(null) : null;
+        Place saved = repository.save(place);
+        invalidate(saved.getId());
+        stats.transitionAfterCommit(before, saved.getStatus());
+        publish(PlaceEventType.actualizada, saved);
+        return saved;
     }
 
-    // Actualizar parcialmente un lugar
+    // Actualizar parcialmente un lugar (JSON Merge Patch, RFC 7396)
+    // Sin @Transactional: con patches agrupados la petición no debe retener una conexión mientras espera
     public Place patch(Long id, Map<String, Object> updates) {
-        Place place = findById(id);
+        if (!coalesce.isEnabled()) {
+            return transactions.execute(status -> applyPatches(id, List.of(updates)));
+        }
+        // Campos y tipos se validan ya: el error es de esta petición, no del grupo
+        MergePatch.of(Place.class).apply(new Place(), updates);
+        if (coalesce.isStrict()) {
+            return patches.submitAndWait(id, updates, coalesce.getTimeoutMs());
+        }
+        ReadYourWrites.markWrite();  // La respuesta se arma con lo que hay en el primario, sin la caché
+        if (load(id) == null) {
+            return null;
+        }
+        patches.submit(id, updates).exceptionally(e -> {
+            log.warn("Patch del lugar {} descartado: {}", id, e.getMessage());
+            return null;
+        });
+        return findById(id);
+    }
+
+    // Una carga, los patches en orden y un único UPDATE al confirmar
+    private Place applyPatches(Long id, List<Map<String, Object>> updates) {
+        Place place = repository.findById(id).orElse(null);
         if (place != null) {
-            updates.forEach((key, value) -> {
-                switch (key) {
-                    case "name" -> {
-                        String newName = (String) value;
-                        if (newName != null && !newName.trim().isEmpty()) {
-                            place.setName(newName);
-                        }
-                    }
-                    case "description" -> {
-                        String newDescription = (String) value;
-                        if (newDescription != null && !newDescription.trim().isEmpty()) {
-                            place.setDescription(newDescription);
-                        }
-                    }
-                    case "status" -> {
-                        String newStatus = (String) value;
-                        if (newStatus != null && !newStatus.trim().isEmpty()) {
-                            try {
-                                place.setStatus(PlaceStatus.valueOf(newStatus.toUpperCase()));
-                            } catch (IllegalArgumentException e) {
-                            }
-                        }
-                    }
-                }
-            });
+            PlaceStatus before = place.getStatus();
+            Set<String> changed = new LinkedHashSet<>();
+            for (Map<String, Object> patch : updates) {
+                changed.addAll(MergePatch.of(Place.class).apply(place, patch));
+            }
+            if (changed.isEmpty()) {
+                return place;
+            }
+            stats.transitionAfterCommit(before, place.getStatus());
+            // La entidad está gestionada: Hibernate emite un UPDATE solo con las
+            // columnas modificadas al confirmar la transacción (@DynamicUpdate)
+            invalidate(id);
+            publish(PlaceEventType.actualizada, place);  // Se entrega después del commit
             return repository.save(place);
         }
         return null;
     }
 
     // Eliminar un lugar por ID
+    @Transactional
     public void deleteById(Long id) {
+        PlaceStatus before = repository.findStatusById(id).orElse(null);
         repository.deleteById(id);
+        invalidate(id);
+        stats.transitionAfterCommit(before, null);
+        events.publishEvent(PlaceChangedEvent.of(PlaceEventType.eliminada, id, null));
     }
 
     // Método para aceptar un lugar
-    public boolean acceptPlace(Long placeId) {
-        Place place = findById(placeId);
-        if (place != null && place.getStatus() == PlaceStatus.pendiente) {
-            place.setStatus(PlaceStatus.aceptada);
-            repository.save(place);
-            return true;
-        }
-        return false;
+    // Con moderador (cola de moderación) solo decide quien tiene el reclamo vigente;
+    // sin él se mantiene el comportamiento anterior
+    @Transactional
+    public boolean acceptPlace(Long placeId, String moderator) {
+        return decide(placeId, moderator, PlaceStatus.aceptada, PlaceEventType.aceptada);
     }
 
     // Método para rechazar un lugar
-    public boolean rejectPlace(Long placeId) {
-        Place place = findById(placeId);
-        if (place != null && place.getStatus() == PlaceStatus.pendiente) {
-            place.setStatus(PlaceStatus.rechazada);
-            repository.save(place);
-            return true;
+    @Transactional
+    public boolean rejectPlace(Long placeId, String moderator) {
+        return decide(placeId, moderator, PlaceStatus.rechazada, PlaceEventType.rechazada);
+    }
+
+    // La fila queda bloqueada hasta el commit: de dos decisiones simultáneas, la
+    // segunda ya ve el lugar fuera de pendiente
+    private boolean decide(Long placeId, String moderator, PlaceStatus target, PlaceEventType type) {
+        Place place = repository.lockById(placeId).orElse(null);
+        if (place == null || place.getStatus() != PlaceStatus.pendiente) {
+            return false;
         }
-        return false;
+        if (moderator != null && place.getClaimedBy() != null && !moderator.equals(place.getClaimedBy())
+                && place.getClaimExpiresAt() != null && place.getClaimExpiresAt().isAfter(Instant.now())) {
+            throw new IllegalStateException("Lugar " + placeId + " reclamado por " + place.getClaimedBy());
+        }
+        place.setStatus(target);
+        stats.transitionAfterCommit(PlaceStatus.pendiente, target);
+        place.setClaimedBy(null);
+        place.setClaimExpiresAt(null);
+        repository.save(place);
+        invalidate(placeId);
+        publish(type, place);
+        return true;
+    }
+
+    // Cuentas por estado servidas desde memoria (sin consultar la tabla)
+    public Map<String, Long> stats() {
+        return stats.snapshot();
     }
 
     // Buscar lugares pendientes
     public List<Place> findPendingPlaces() {
-        return repository.findAll().stream()
-                .filter(place -> place.getStatus() == PlaceStatus.pendiente)
-                .toList();
+        return findByStatus(PlaceStatus.pendiente);
     }
 
-    // Buscar lugares aceptados
+    // Buscar lugares aceptados (la lista más leída: se sirve desde la caché caliente)
+    @SuppressWarnings("unchecked")
     public List<Place> findAcceptedPlaces() {
-        return repository.findAll().stream()
-                .filter(place -> place.getStatus() == PlaceStatus.aceptada)
-                .toList();
+        if (ReadYourWrites.requiresPrimary()) {
+            return query(() -> repository.findByStatus(PlaceStatus.aceptada));
+        }
+        List<Place> cached = cache.accepted();
+        if (cached != null) {
+            return cached;
+        }
+        return (List<Place>) reads.execute("status:" + PlaceStatus.aceptada, () -> {
+            long generation = cache.generation();
+            List<Place> accepted = ReadYourWrites.onPrimary(
+                    () -> query(() -> repository.findByStatus(PlaceStatus.aceptada)));
+            cache.putAccepted(accepted, generation);
+            return accepted;
+        });
     }
 
     // Buscar lugares rechazados
     public List<Place> findRejectedPlaces() {
-        return repository.findAll().stream()
-                .filter(place -> place.getStatus() == PlaceStatus.rechazada)
-                .toList();
+        return findByStatus(PlaceStatus.rechazada);
+    }
+
+    // Rechazados activos más los ya archivados, solo cuando se piden explícitamente
+    public List<Place> findRejectedPlaces(boolean includeArchived) {
+        List<Place> rejected = findRejectedPlaces();
+        if (!includeArchived) {
+            return rejected;
+        }
+        List<Place> all = new ArrayList<>(rejected);
+        archive.findByStatus(PlaceStatus.rechazada).forEach(archived -> all.add(archived.toPlace()));
+        return all;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Place> findByStatus(PlaceStatus status) {
+        return (List<Place>) reads.execute("status:" + status, () -> query(() -> repository.findByStatus(status)));
+    }
+
+    // Los que esperan en reads no ocupan una conexión mientras la consulta corre.
+    // La lista se comparte entre peticiones, así que se devuelve inmodificable
+    private List<Place> query(Supplier<List<Place>> query) {
+        return List.copyOf(readOnly.execute(status -> query.get()));
     }
 
     // Obtener solicitudes pendientes desde el microservicio de solicitudes (nuestra adición)
@@ -143,7 +307,7 @@ public class PlaceService {
             );
             return response.getBody();
         } catch (RestClientException | IllegalArgumentException e) {
-            System.err.println("Error al llamar a solicitudes: " + e.getMessage());
+            log.warn("Error al llamar a solicitudes: {}", e.getMessage());
             return List.of();
         }
     }
@@ -163,11 +327,49 @@ public class PlaceService {
         
         try {
             restTemplate.postForObject(url, solicitudData, String.class);
-            System.out.println("Solicitud creada automáticamente para el lugar: " + place.getName());
+            log.info("Solicitud creada automáticamente para el lugar: {}", place.getName());
         } catch (RestClientException | IllegalArgumentException e) {
-            System.err.println("Error al crear solicitud: " + e.getMessage());
+            log.warn("Error al crear solicitud: {}", e.getMessage());
         }
         
         return savedPlace;
     }
+
+    // Tras el commit de una escritura, las nuevas lecturas de ese lugar y de los listados
+    // ya no se unen a consultas que empezaron antes del cambio
+    private void invalidate(Long id) {
+        String key = "id:" + id;
+        reads.invalidateAfterCommit(k -> k.equals(key) || !k.startsWith("id:"));
+    }
+
+    // Cambio confirmado en otra instancia (PlaceChangeFeed): fuera de transacción se aplica ya
+    public void evictRemote(Long id) {
+        invalidate(id);
+    }
+
+    private boolean writeBehind() {
+        return coalesce.isEnabled() && !coalesce.isStrict();
+    }
+
+    // Lectura de lo propio escrito en write-behind: los patches sin confirmar se aplican
+    // a una copia (la entidad puede estar compartida por la caché)
+    private static Place withPending(Place place, List<Map<String, Object>> pending) {
+        if (place == null || pending.isEmpty()) {
+            return place;
+        }
+        Place copy = new Place(place.getId(), place.getName(), place.getDescription(), place.getStatus(),
+                place.getUpdatedAt(), place.getClaimedBy(), place.getClaimExpiresAt());
+        pending.forEach(patch -> MergePatch.of(Place.class).apply(copy, patch));
+        return copy;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        patches.shutdown(coalesce.getTimeoutMs());
+    }
+
+    // Notifica el cambio a los suscriptores de /api/places/events
+    private void publish(PlaceEventType type, Place place) {
+        events.publishEvent(PlaceChangedEvent.of(type, place.getId(), place.getStatus()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package eamelectiva.microserviciolugar.service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+import eamelectiva.microserviciolugar.repository.PlaceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Número de lugares por estado en memoria, para /api/places/stats sin
+ * recorrer la tabla. Un LongAdder por estado: las escrituras concurrentes no
+ * compiten por un mismo contador.
+ *
+ * Los cambios se aplican después del commit (un rollback no altera la
+ * cuenta). Al arrancar se cargan con un GROUP BY y cada
+ * stats.reconcile-interval-ms se comparan con la base para corregir
+ * desviaciones (escrituras fuera de este servicio, fallos entre commit y
+ * ajuste). Ambas consultas van al primario.
+ *
+ * Los cambios de otras instancias no pasan por aquí: PlaceChangeFeed los ve
+ * en lugar_cambio y pide un recuento con refresh(), como mucho cada
+ * places.invalidation.stats-refresh-ms.
+ */
+@Component
+public class PlaceStats {
+
+    private static final Logger log = LoggerFactory.getLogger(PlaceStats.class);
+
+    private final PlaceRepository repository;
+    private final TransactionTemplate transactions;
+    private final Map<PlaceStatus, LongAdder> counts = new EnumMap<>(PlaceStatus.class);
+    private final Counter drift;
+
+    public PlaceStats(PlaceRepository repository, PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.repository = repository;
+        // Lectura-escritura a propósito: va al primario. Con una réplica atrasada la
+        // reconciliación "corregiría" contadores que ya estaban al día
+        this.transactions = new TransactionTemplate(transactionManager);
+        for (PlaceStatus status : PlaceStatus.values()) {
+            LongAdder adder = new LongAdder();
+            counts.put(status, adder);
+            Gauge.builder("places.count", adder, LongAdder::sum).tag("status", status.name()).register(registry);
+        }
+        this.drift = Counter.builder("places.count.drift").register(registry);
+    }
+
+    // Un lugar pasa de "from" a "to"; null = no existía / ya no existe
+    public void transitionAfterCommit(PlaceStatus from, PlaceStatus to) {
+        if (from == to) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(from, to, 1);
+                }
+            });
+        } else {
+            apply(from, to, 1);
+        }
+    }
+
+    // Varias filas salen de la tabla a la vez (archivado)
+    public void removedAfterCommit(PlaceStatus status, int count) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(status, null, count);
+                }
+            });
+        } else {
+            apply(status, null, count);
+        }
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<PlaceStatus, LongAdder> entry : counts.entrySet()) {
+            long value = entry.getValue().sum();
+            result.put(entry.getKey().name(), value);
+            total += value;
+        }
+        result.put("total", total);
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        sync(false);
+        log.info("Contadores de lugares cargados: {}", snapshot());
+    }
+
+    /**
+     * Compara con un GROUP BY y corrige la diferencia. Si el contador cambió
+     * mientras corría la consulta no se toca: el resultado podría no incluir
+     * ese cambio, y se revisa en la siguiente pasada.
+     */
+    @Scheduled(initialDelayString = "${stats.reconcile-interval-ms:300000}",
+            fixedDelayString = "${stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        sync(true);
+    }
+
+    // Recuento tras cambios confirmados en otra instancia: no es desviación
+    public void refresh() {
+        sync(false);
+    }
+
+    private void sync(boolean countDrift) {
+        Map<PlaceStatus, Long> before = new EnumMap<>(PlaceStatus.class);
+        counts.forEach((status, adder) -> before.put(status, adder.sum()));
+        Map<PlaceStatus, Long> actual = new EnumMap<>(PlaceStatus.class);
+        try {
+            List<Object[]> rows = transactions.execute(status -> repository.countByStatus());
+            for (Object[] row : rows) {
+                if (row[0] != null) {
+                    actual.put((PlaceStatus) row[0], (Long) row[1]);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron contar los lugares por estado: {}", e.getMessage());
+            return;
+        }
+        for (PlaceStatus status : PlaceStatus.values()) {
+            LongAdder adder = counts.get(status);
+            long counted = before.get(status);
+            if (adder.sum() != counted) {
+                continue;
+            }
+            long delta = actual.getOrDefault(status, 0L) - counted;
+            if (delta != 0) {
+                adder.add(delta);
+                if (!countDrift) {
+                    continue;
+                }
+                drift.increment(Math.abs(delta));
+                log.info("Contador de lugares {} corregido en {}", status, delta);
+            }
+        }
+    }
+
+    private void apply(PlaceStatus from, PlaceStatus to, int count) {
+        if (from != null) {
+            counts.get(from).add(-count);
+        }
+        if (to != null) {
+            counts.get(to).add(count);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package eamelectiva.microserviciolugar.warmup;
+
+/**
+ * Decide cuándo la latencia dejó de bajar: el p90 de cada ronda se compara
+ * con el de la anterior y hacen falta stableRounds rondas seguidas dentro de
+ * la tolerancia.
+ */
+public class LatencyConvergence {
+
+    private final int stableRounds;
+    private final double tolerance;
+    private long previous = -1;
+    private long first = -1;
+    private int rounds;
+    private int streak;
+
+    public LatencyConvergence(int stableRounds, int tolerancePercent) {
+        this.stableRounds = stableRounds;
+        this.tolerance = tolerancePercent / 100.0;
+    }
+
+    public void addRound(long p90Nanos) {
+        if (first < 0) {
+            first = p90Nanos;
+        }
+        if (previous > 0 && Math.abs(p90Nanos - previous) <= previous * tolerance) {
+            streak++;
+        } else {
+            streak = 0;
+        }
+        previous = p90Nanos;
+        rounds++;
+    }
+
+    public boolean isStable() {
+        return streak >= stableRounds;
+    }
+
+    public int rounds() {
+        return rounds;
+    }
+
+    public long firstP90() {
+        return first;
+    }
+
+    public long lastP90() {
+        return previous;
+    }
+}
@@ -0,0 +1,91 @@
+package eamelectiva.microserviciolugar.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eamelectiva.microserviciolugar.model.Place;
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+
+class PlaceSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTrip() throws IOException {
+        Instant updated = Instant.parse("2026-01-02T03:04:05.123456Z");
+        List<Place> places = List.of(
+                new Place(1L, "Mirador", "Vista al valle ñ", PlaceStatus.aceptada, updated, null, null),
+                new Place(2L, "Parque", null, null, null, null, null));
+        Path file = dir.resolve("sub/cache.bin");
+        new PlaceSnapshot(updated, places, List.of(1L)).write(file);
+
+        PlaceSnapshot read = PlaceSnapshot.read(file);
+        assertEquals(updated, read.writtenAt());
+        assertEquals(List.of(1L), read.acceptedIds());
+        assertEquals("Vista al valle ñ", read.places().get(0).getDescription());
+        assertEquals(PlaceStatus.aceptada, read.places().get(0).getStatus());
+        assertEquals(updated, read.places().get(0).getUpdatedAt());
+        assertNull(read.places().get(1).getDescription());
+        assertNull(read.places().get(1).getStatus());
+    }
+
+    @Test
+    void rejectsCorruptFile() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        new PlaceSnapshot(Instant.now(), List.of(new Place(1L, "Mirador", null, PlaceStatus.pendiente, null, null, null)), null)
+                .write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> PlaceSnapshot.read(file));
+    }
+
+    @Test
+    void rejectsOtherFormatVersions() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        new PlaceSnapshot(Instant.now(), List.of(new Place(1L, "Mirador", null, PlaceStatus.pendiente, null, null, null)), null)
+                .write(file);
+        // Versión 1 (estado por ordinal) con un CRC válido
+        rewrite(file, bytes -> ByteBuffer.wrap(bytes).putInt(4, 1));
+        assertThrows(IOException.class, () -> PlaceSnapshot.read(file));
+    }
+
+    @Test
+    void rejectsStatusesThatNoLongerExist() throws IOException {
+        Path file = dir.resolve("cache.bin");
+        new PlaceSnapshot(Instant.now(), List.of(new Place(1L, "Mirador", null, PlaceStatus.pendiente, null, null, null)), null)
+                .write(file);
+        rewrite(file, bytes -> {
+            byte[] name = "pendiente".getBytes(StandardCharsets.UTF_8);
+            int at = new String(bytes, StandardCharsets.ISO_8859_1).indexOf("pendiente");
+            name[name.length - 1] = 'X';
+            System.arraycopy(name, 0, bytes, at, name.length);
+        });
+        assertThrows(IOException.class, () -> PlaceSnapshot.read(file));
+    }
+
+    // Cambia el contenido y recalcula el CRC final, para que solo falle la validación del formato
+    private static void rewrite(Path file, Consumer<byte[]> change) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        change.accept(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 8);
+        ByteBuffer.wrap(bytes).putLong(bytes.length - 8, crc.getValue());
+        Files.write(file, bytes);
+    }
+}
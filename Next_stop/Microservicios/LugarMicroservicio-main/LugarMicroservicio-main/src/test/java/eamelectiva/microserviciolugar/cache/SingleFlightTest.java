@@ -0,0 +1,107 @@
+package eamelectiva.microserviciolugar.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import eamelectiva.microserviciolugar.datasource.ReadYourWrites;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> flight.execute("id:1", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return 42;
+                })));
+            }
+            while (flight.coalescedCount() < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void writeMidFlightStartsFreshLoad() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> stale = pool.submit(() -> flight.execute("id:1", () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+            started.await();
+            flight.invalidateAfterCommit("id:1");  // Escritura confirmada mientras la consulta sigue en curso
+            assertEquals(2, flight.execute("id:1", () -> 2));
+            release.countDown();
+            assertEquals(1, stale.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void primaryReadDoesNotJoinReplicaLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // Carga en curso lanzada por una petición sin requisito de primario
+            Future<String> replica = pool.submit(() -> flight.execute("id:1", () -> {
+                started.countDown();
+                await(release);
+                return ReadYourWrites.requiresPrimary() ? "primario" : "réplica";
+            }));
+            started.await();
+            ReadYourWrites.markWrite();  // X-Consistency: strong o una escritura previa
+            try {
+                assertEquals("primario", flight.execute("id:1",
+                        () -> ReadYourWrites.requiresPrimary() ? "primario" : "réplica"));
+            } finally {
+                ReadYourWrites.clear();
+            }
+            assertEquals(0, flight.coalescedCount());
+            release.countDown();
+            assertEquals("réplica", replica.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
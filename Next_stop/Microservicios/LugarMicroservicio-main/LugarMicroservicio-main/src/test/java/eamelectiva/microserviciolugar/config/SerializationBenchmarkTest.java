@@ -0,0 +1,84 @@
+package eamelectiva.microserviciolugar.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import eamelectiva.microserviciolugar.model.Place;
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+
+/**
+ * Compara tiempo de serialización y bytes en la red de JSON, Smile y CBOR
+ * para una lista de lugares de tamaño realista. Registra los
+ * resultados en el log y verifica que cada formato lea lo mismo que escribió
+ * y que los binarios ocupen menos que JSON.
+ */
+class SerializationBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SerializationBenchmarkTest.class);
+
+    private static final int PLACES = 2_000;
+    private static final int ITERATIONS = 50;
+
+    private List<Place> places() {
+        PlaceStatus[] statuses = PlaceStatus.values();
+        List<Place> places = new ArrayList<>(PLACES);
+        for (int i = 0; i < PLACES; i++) {
+            places.add(new Place((long) i, "Mirador del Quindío " + i,
+                    "Sendero ecológico con vista al valle, cafetería y parqueadero. Ideal para visitar en familia.",
+                    statuses[i % statuses.length], null, null, null));
+        }
+        return places;
+    }
+
+    @Test
+    void compareFormats() throws Exception {
+        List<Place> places = places();
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("smile", Jackson2ObjectMapperBuilder.smile().factory(new SmileFactory()).build());
+        mappers.put("cbor", Jackson2ObjectMapperBuilder.cbor().factory(new CBORFactory()).build());
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            byte[] payload = mapper.writeValueAsBytes(places);
+            for (int i = 0; i < ITERATIONS; i++) {  // Calentamiento del JIT
+                mapper.readValue(mapper.writeValueAsBytes(places), new TypeReference<List<Place>>() {});
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                mapper.writeValueAsBytes(places);
+            }
+            long write = (System.nanoTime() - start) / ITERATIONS;
+            start = System.nanoTime();
+            List<Place> read = null;
+            for (int i = 0; i < ITERATIONS; i++) {
+                read = mapper.readValue(payload, new TypeReference<List<Place>>() {});
+            }
+            long parse = (System.nanoTime() - start) / ITERATIONS;
+            assertEquals(PLACES, read.size());
+            assertEquals(places.get(PLACES - 1).getName(), read.get(PLACES - 1).getName());
+            assertTrue(write > 0 && parse > 0);
+            sizes.put(entry.getKey(), payload.length);
+            log.info("{} {} bytes, escritura {} µs, lectura {} µs",
+                    entry.getKey(), payload.length, write / 1_000, parse / 1_000);
+        }
+        assertTrue(sizes.get("smile") < sizes.get("json"));
+        assertTrue(sizes.get("cbor") < sizes.get("json"));
+    }
+}
@@ -0,0 +1,231 @@
+package eamelectiva.microserviciolugar.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import eamelectiva.microserviciolugar.MicroservicioLugarApplication;
+
+/**
+ * Compara hilos de plataforma (pool como el de Tomcat) con hilos virtuales
+ * (spring.threads.virtual.enabled) con el mismo límite de peticiones en
+ * curso. Cada petición hace lo que una de PlaceController: una consulta por
+ * Hikari (H2 en memoria) y una llamada lenta a solicitudes con el
+ * RestTemplate de la aplicación, configurado para cada modo.
+ *
+ * Registra el rendimiento y la memoria por petición en curso; la memoria se
+ * mide con VmRSS (Linux), que incluye las pilas nativas de los hilos de
+ * plataforma. Depende de la máquina, así que no corre con mvn test:
+ * mvn test -Dgroups=benchmark -DexcludedGroups=
+ */
+@Tag("benchmark")
+class ThreadModelBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadModelBenchmarkTest.class);
+
+    private static final int[] IN_FLIGHT = {200, 1_000};  // 200 = server.tomcat.threads.max por defecto
+    private static final int REQUESTS = 5_000;
+    private static final int POOL_SIZE = 20;
+    private static final long DEPENDENCY_MS = 10;
+    private static final int MEMORY_THREADS = 2_000;
+    private static final int STACK_DEPTH = 64;  // Aproximación a la pila de Spring MVC + Hibernate
+
+    private static HttpServer server;
+    private static HikariDataSource dataSource;
+    private static String url;
+
+    @BeforeAll
+    static void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/solicitudes", exchange -> {
+            sleep(DEPENDENCY_MS);  // Dependencia lenta
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/solicitudes";
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:threadmodel");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(POOL_SIZE);
+        dataSource = new HikariDataSource(config);
+    }
+
+    @AfterAll
+    static void stop() {
+        dataSource.close();
+        server.stop(0);
+    }
+
+    @Test
+    void compareThroughputAtTheSameInFlightLimit() throws Exception {
+        ThreadFactory platform = Thread.ofPlatform().name("plataforma-", 0).factory();
+        ThreadFactory virtual = Thread.ofVirtual().name("virtual-", 0).factory();
+        RestTemplate platformClient = new MicroservicioLugarApplication().restTemplate(false);
+        RestTemplate virtualClient = new MicroservicioLugarApplication().restTemplate(true);
+
+        for (int limit : IN_FLIGHT) {
+            // Igual que Tomcat: con plataforma el límite es el tamaño del pool
+            double platformRate = throughput(Executors.newFixedThreadPool(limit, platform), limit, platformClient);
+            double virtualRate = throughput(Executors.newThreadPerTaskExecutor(virtual), limit, virtualClient);
+            log.info("{} en curso: plataforma {} pet/s, virtuales {} pet/s",
+                    limit, String.format("%,.0f", platformRate), String.format("%,.0f", virtualRate));
+        }
+    }
+
+    @Test
+    void compareMemoryPerWaitingRequest() throws Exception {
+        long[] platformMemory = memoryPerRequest(Thread.ofPlatform().name("plataforma-", 0).factory());
+        long[] virtualMemory = memoryPerRequest(Thread.ofVirtual().name("virtual-", 0).factory());
+        log.info("Por petición en espera: plataforma {} B RSS / {} B heap, virtuales {} B RSS / {} B heap",
+                platformMemory[0], platformMemory[1], virtualMemory[0], virtualMemory[1]);
+
+        if (platformMemory[0] > 0 && virtualMemory[0] > 0) {
+            assertTrue(virtualMemory[0] < platformMemory[0]);
+        }
+    }
+
+    /**
+     * REQUESTS peticiones con a lo sumo "limit" a la vez; falla si alguna no
+     * terminó bien.
+     */
+    private static double throughput(ExecutorService executor, int limit, RestTemplate client) throws Exception {
+        Semaphore inFlight = new Semaphore(limit);
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        AtomicInteger ok = new AtomicInteger();
+        long start = System.nanoTime();
+        try (executor) {
+            for (int i = 0; i < REQUESTS; i++) {
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        nested(STACK_DEPTH, () -> {
+                            if (request(client)) {
+                                ok.incrementAndGet();
+                            }
+                        });
+                    } finally {
+                        inFlight.release();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        assertEquals(REQUESTS, ok.get());
+        return REQUESTS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // Consulta con una conexión del pool y después la llamada remota, como getPlacesWithRequests
+    private static boolean request(RestTemplate client) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT 1")) {
+            if (!result.next()) {
+                return false;
+            }
+        } catch (Exception e) {
+            return false;
+        }
+        return "[]".equals(client.getForObject(url, String.class));
+    }
+
+    // {RSS, heap} por petición con MEMORY_THREADS peticiones esperando a la vez
+    private static long[] memoryPerRequest(ThreadFactory factory) throws InterruptedException {
+        long rssBefore = rss();
+        long heapBefore = heapAfterGc();
+        CountDownLatch arrived = new CountDownLatch(MEMORY_THREADS);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        Thread[] threads = new Thread[MEMORY_THREADS];
+        for (int i = 0; i < MEMORY_THREADS; i++) {
+            threads[i] = factory.newThread(() -> nested(STACK_DEPTH, () -> {
+                arrived.countDown();
+                try {
+                    release.await();
+                    completed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            threads[i].start();
+        }
+        arrived.await();
+        long heap = heapAfterGc() - heapBefore;
+        long rss = rssBefore > 0 ? rss() - rssBefore : -1;
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(MEMORY_THREADS, completed.get());
+        return new long[] {rss > 0 ? rss / MEMORY_THREADS : -1, Math.max(0, heap / MEMORY_THREADS)};
+    }
+
+    // Marcos reales en la pila, como los de una petición que espera dentro de un repositorio
+    private static void nested(int depth, Runnable atBottom) {
+        if (depth == 0) {
+            atBottom.run();
+            return;
+        }
+        nested(depth - 1, atBottom);
+    }
+
+    private static long heapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // -1 fuera de Linux
+    private static long rss() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Sin /proc: solo se informa el heap
+        }
+        return -1;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package eamelectiva.microserviciolugar.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Enrutamiento con dos bases locales (H2 en memoria) en lugar de MariaDB.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private ReadWriteRoutingDataSource routing;
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource ds = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS origen (nombre VARCHAR(20))");
+        jdbc.execute("DELETE FROM origen");
+        jdbc.update("INSERT INTO origen VALUES (?)", name);
+        return ds;
+    }
+
+    private TransactionTemplate transactions(boolean readOnly, JdbcTemplate jdbc) {
+        TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    private String whereAmI(JdbcTemplate jdbc, boolean readOnly) {
+        return transactions(readOnly, jdbc).execute(status -> jdbc.queryForObject("SELECT nombre FROM origen", String.class));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        ReadYourWrites.clear();
+        if (routing != null) {
+            routing.close();
+        }
+    }
+
+    @Test
+    void readOnlyGoesToReplicaAndWritesToPrimary() {
+        routing = new ReadWriteRoutingDataSource(database("primario"), List.of(database("replica")), 5, "");
+        routing.afterPropertiesSet();
+        JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+
+        assertEquals("replica", whereAmI(jdbc, true));
+        assertEquals("primario", whereAmI(jdbc, false));
+        // Después de escribir, la misma petición lee del primario
+        assertEquals("primario", whereAmI(jdbc, true));
+    }
+
+    @Test
+    void onPrimaryOnlyRoutesThatRead() {
+        routing = new ReadWriteRoutingDataSource(database("primario"), List.of(database("replica")), 5, "");
+        routing.afterPropertiesSet();
+        JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+
+        assertEquals("primario", ReadYourWrites.onPrimary(() -> whereAmI(jdbc, true)));
+        assertEquals("replica", whereAmI(jdbc, true));
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenReplicaIsDown() {
+        DataSource down = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/noexiste");
+        routing = new ReadWriteRoutingDataSource(database("primario"), List.of(down), 5, "");
+        routing.afterPropertiesSet();
+        JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+
+        assertEquals("primario", whereAmI(jdbc, true));
+        assertFalse(routing.isReplicaHealthy(0));
+    }
+}
@@ -0,0 +1,134 @@
+package eamelectiva.microserviciolugar.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import eamelectiva.microserviciolugar.cache.WarmPlaceCache;
+import eamelectiva.microserviciolugar.model.PlaceChange;
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+import eamelectiva.microserviciolugar.repository.PlaceChangeRepository;
+import eamelectiva.microserviciolugar.service.PlaceService;
+import eamelectiva.microserviciolugar.service.PlaceStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PlaceChangeFeedTest {
+
+    private final PlaceChangeRepository repository = mock(PlaceChangeRepository.class);
+    private final WarmPlaceCache cache = mock(WarmPlaceCache.class);
+    private final PlaceService places = mock(PlaceService.class);
+    private final PlaceStats stats = mock(PlaceStats.class);
+    private final PlaceEventStream stream = mock(PlaceEventStream.class);
+    private final InvalidationProperties properties = new InvalidationProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PlaceChangeFeed feed = new PlaceChangeFeed(repository, mock(PlatformTransactionManager.class),
+            cache, places, stats, stream, properties, registry);
+
+    private static PlaceChange change(long id, long placeId, String origin) {
+        return new PlaceChange(id, placeId, PlaceEventType.aceptada, PlaceStatus.aceptada, origin, Instant.now());
+    }
+
+    @Test
+    void appliesRemoteChangesAndSkipsOwn() {
+        when(repository.findMaxId()).thenReturn(10L);
+        feed.poll();  // Cursor inicial: lo anterior al arranque no se aplica
+        verify(repository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+
+        ArgumentCaptor<PlaceChange> recorded = ArgumentCaptor.forClass(PlaceChange.class);
+        feed.record(PlaceChangedEvent.of(PlaceEventType.rechazada, 7L, PlaceStatus.rechazada));
+        verify(repository).save(recorded.capture());
+        String own = recorded.getValue().getOrigin();
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(change(11, 5, "otra"), change(12, 7, own)));
+        feed.poll();
+        verify(cache).evict(5L);
+        verify(places).evictRemote(5L);
+        verify(cache, never()).evict(7L);
+        assertEquals(1, registry.get("places.invalidation.lag").timer().count());
+
+        // Solo el cambio remoto llega a los clientes SSE de esta instancia
+        ArgumentCaptor<PlaceChangedEvent> streamed = ArgumentCaptor.forClass(PlaceChangedEvent.class);
+        verify(stream).onPlaceChanged(streamed.capture());
+        assertEquals(5L, streamed.getValue().placeId());
+        assertEquals(PlaceEventType.aceptada, streamed.getValue().type());
+        assertEquals(PlaceStatus.aceptada, streamed.getValue().status());
+    }
+
+    @Test
+    void picksUpIdsCommittedOutOfOrder() {
+        when(repository.findMaxId()).thenReturn(0L);
+        feed.poll();
+        // El 2 se confirmó después que el 3
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(change(1, 100, "otra"), change(3, 300, "otra")));
+        feed.poll();
+        verify(cache, never()).evict(200L);
+
+        when(repository.findAllById(Set.of(2L))).thenReturn(List.of(change(2, 200, "otra")));
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(3L), any(Limit.class))).thenReturn(List.of());
+        feed.poll();
+        verify(cache).evict(200L);
+    }
+
+    @Test
+    void remoteChangesRefreshStatsAtMostOncePerInterval() {
+        when(repository.findMaxId()).thenReturn(0L);
+        feed.poll();
+        ArgumentCaptor<PlaceChange> recorded = ArgumentCaptor.forClass(PlaceChange.class);
+        feed.record(PlaceChangedEvent.of(PlaceEventType.creada, 9L, PlaceStatus.pendiente));
+        verify(repository).save(recorded.capture());
+
+        // Solo cambios propios: los contadores ya se ajustaron al confirmar
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(change(1, 9, recorded.getValue().getOrigin())));
+        properties.setStatsRefreshMs(0);
+        feed.poll();
+        verify(stats, never()).refresh();
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(1L), any(Limit.class)))
+                .thenReturn(List.of(change(2, 5, "otra")));
+        feed.poll();
+        verify(stats).refresh();
+
+        // Dentro del intervalo se espera; el cambio queda pendiente para después
+        properties.setStatsRefreshMs(60000);
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class)))
+                .thenReturn(List.of(change(3, 6, "otra")));
+        feed.poll();
+        verify(stats, times(1)).refresh();
+        properties.setStatsRefreshMs(0);
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(3L), any(Limit.class))).thenReturn(List.of());
+        feed.poll();
+        verify(stats, times(2)).refresh();
+    }
+
+    @Test
+    void suspendsCacheWhileChangesCannotBeRead() {
+        properties.setMaxStalenessMs(0);
+        when(repository.findMaxId()).thenThrow(new DataAccessResourceFailureException("sin conexión"));
+        feed.poll();
+        verify(cache).suspend();
+
+        doReturn(0L).when(repository).findMaxId();
+        feed.poll();
+        verify(cache).resume();
+    }
+}
@@ -0,0 +1,29 @@
+package eamelectiva.microserviciolugar.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PlaceEventStreamTest {
+
+    private final PlaceEventStream stream = new PlaceEventStream(16, 8, 60000, 60000, 1);
+    private final PlaceEventStream restarted = new PlaceEventStream(16, 8, 60000, 60000, 1);
+
+    @AfterEach
+    void shutdown() {
+        stream.shutdown();
+        restarted.shutdown();
+    }
+
+    @Test
+    void onlyIdsFromThisBootResume() {
+        assertEquals(0, stream.position(stream.eventId(0)));
+        assertEquals(42, stream.position(stream.eventId(42)));
+        // Mismo número de secuencia, pero de otro arranque u otra instancia
+        assertEquals(-1, stream.position(restarted.eventId(42)));
+        // Formato anterior (solo la secuencia) o basura
+        assertEquals(-1, stream.position("42"));
+        assertEquals(-1, stream.position(stream.eventId(0).replace("-0", "-x")));
+    }
+}
@@ -0,0 +1,63 @@
+package eamelectiva.microserviciolugar.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eamelectiva.microserviciolugar.jfr.JfrReport.Breakdown;
+import eamelectiva.microserviciolugar.jfr.JfrReport.Span;
+import jdk.jfr.Recording;
+
+class JfrReportTest {
+
+    @Test
+    void splitsRequestTimeBetweenNestedCalls() {
+        JfrReport report = new JfrReport(List.of(
+                new Span("HttpRequest", "POST /api/places", 1, 0, 100),
+                new Span("RepositoryCall", "PlaceRepository.save", 1, 10, 30),
+                new Span("Flush", "flush", 1, 12, 20),  // Dentro de save: no se cuenta dos veces
+                new Span("RemoteCall", "POST solicitudes/solicitudes", 1, 40, 90),
+                new Span("RepositoryCall", "PlaceRepository.save", 2, 10, 50),  // Otro hilo
+                new Span("HttpRequest", "POST /api/places", 1, 200, 220),
+                new Span("Flush", "flush", 1, 205, 215)));
+
+        Breakdown breakdown = report.requests().get("POST /api/places");
+        assertEquals(2, breakdown.count);
+        assertEquals(120, breakdown.total);
+        assertArrayEquals(new long[] {20, 50, 0, 10, 0}, breakdown.parts);
+        assertEquals(40, breakdown.rest());
+        assertArrayEquals(new long[] {20, 40}, report.durations().get("RepositoryCall\tPlaceRepository.save"));
+    }
+
+    @Test
+    void readsCustomEventsFromRecording(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(HttpRequestEvent.class);
+            recording.enable(RepositoryCallEvent.class);
+            recording.start();
+            HttpRequestEvent request = new HttpRequestEvent();
+            request.begin();
+            for (int i = 0; i < 3; i++) {
+                RepositoryCallEvent call = new RepositoryCallEvent();
+                call.begin();
+                call.finish("PlaceRepository", "findById", false);
+            }
+            request.finish("GET", "/api/places/{id}", 200);
+            recording.stop();
+            recording.dump(file);
+        }
+        assertTrue(Files.size(file) > 0);
+
+        JfrReport report = JfrReport.read(file);
+        assertEquals(3, report.durations().get("RepositoryCall\tPlaceRepository.findById").length);
+        assertEquals(1, report.requests().get("GET /api/places/{id}").count);
+    }
+}
@@ -0,0 +1,36 @@
+package eamelectiva.microserviciolugar.jfr;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Escucha jdk.VirtualThreadPinned (sin umbral) mientras está abierto y
+ * devuelve, por cada evento, el primer marco fuera del JDK.
+ */
+final class PinningDetector implements AutoCloseable {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream stream = new RecordingStream();
+    private final List<String> sites = new CopyOnWriteArrayList<>();
+
+    PinningDetector() {
+        stream.enable(PINNED).withThreshold(Duration.ZERO).withStackTrace();
+        stream.onEvent(PINNED, event -> sites.add(JfrReport.pinnedSite(event.getStackTrace())));
+        stream.startAsync();
+    }
+
+    // Espera a que se entreguen los eventos ya grabados
+    List<String> stop() {
+        stream.stop();
+        return List.copyOf(sites);
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
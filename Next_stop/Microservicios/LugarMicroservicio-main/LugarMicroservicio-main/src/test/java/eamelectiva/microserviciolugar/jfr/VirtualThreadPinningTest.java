@@ -0,0 +1,113 @@
+package eamelectiva.microserviciolugar.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import eamelectiva.microserviciolugar.MicroservicioLugarApplication;
+
+/**
+ * Los caminos bloqueantes de una petición no deben fijar el hilo virtual a
+ * su portador: esperar una conexión de Hikari y las llamadas a solicitudes.
+ * El driver de MariaDB (3.x, con ReentrantLock) no se puede ejercitar sin
+ * servidor; en producción sus esperas salen en el informe de JfrReport.
+ */
+class VirtualThreadPinningTest {
+
+    private static final int TASKS = 200;
+
+    private static final Object MONITOR = new Object();
+
+    @Test
+    void detectsBlockingInsideSynchronized() throws Exception {
+        List<String> sites;
+        try (PinningDetector detector = new PinningDetector()) {
+            Thread.ofVirtual().start(() -> {
+                synchronized (MONITOR) {
+                    sleep(20);
+                }
+            }).join();
+            sites = detector.stop();
+        }
+        assertFalse(sites.isEmpty());
+        assertTrue(sites.get(0).startsWith(VirtualThreadPinningTest.class.getName()), sites.get(0));
+    }
+
+    @Test
+    void hikariWaitsDoNotPin() throws Exception {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:pinning");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(4);  // Muchas más tareas que conexiones: casi todas esperan
+        List<String> sites;
+        try (HikariDataSource dataSource = new HikariDataSource(config);
+             PinningDetector detector = new PinningDetector()) {
+            runVirtual(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    sleep(2);  // Consulta lenta con la conexión tomada
+                }
+                return null;
+            });
+            sites = detector.stop();
+        }
+        assertEquals(List.of(), sites);
+    }
+
+    @Test
+    void remoteCallsDoNotPin() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/solicitudes", exchange -> {
+            sleep(20);  // Dependencia lenta
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        RestTemplate restTemplate = new MicroservicioLugarApplication().restTemplate(true);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/solicitudes";
+        List<String> sites;
+        try (PinningDetector detector = new PinningDetector()) {
+            runVirtual(() -> restTemplate.getForObject(url, String.class));
+            sites = detector.stop();
+        } finally {
+            server.stop(0);
+        }
+        assertEquals(List.of(), sites);
+    }
+
+    private static void runVirtual(java.util.concurrent.Callable<Object> task) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Object>> futures = IntStream.range(0, TASKS).mapToObj(i -> executor.submit(task)).toList();
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
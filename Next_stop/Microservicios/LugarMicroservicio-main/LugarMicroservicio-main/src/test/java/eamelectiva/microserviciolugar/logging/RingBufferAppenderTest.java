@@ -0,0 +1,72 @@
+package eamelectiva.microserviciolugar.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+
+class RingBufferAppenderTest {
+
+    // Destino que se queda bloqueado hasta que se libera el latch
+    static class SlowAppender extends AppenderBase<ILoggingEvent> {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<ILoggingEvent> written = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.add(event);
+        }
+    }
+
+    @Test
+    void dropsLowLevelsFirstAndReportsDrops() throws Exception {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        SlowAppender slow = new SlowAppender();
+        slow.setContext(context);
+        slow.start();
+        RingBufferAppender ring = new RingBufferAppender();
+        ring.setContext(context);
+        ring.setCapacity(10);
+        ring.setDiscardThresholdPercent(50);
+        ring.addAppender(slow);
+        ring.start();
+        Logger logger = context.getLogger("test");
+        logger.addAppender(ring);
+        logger.setAdditive(false);
+
+        logger.info("primero");  // Lo toma el escritor y se bloquea en el destino
+        Thread.sleep(300);
+        for (int i = 0; i < 10; i++) {
+            logger.info("info {}", i);  // Entran 6 (hasta quedar menos de 5 libres); el resto se descarta
+        }
+        for (int i = 0; i < 8; i++) {
+            logger.warn("warn {}", i);  // Entran 4 hasta llenar la cola; 4 se pierden
+        }
+        assertEquals(4, ring.getDiscarded());
+        assertEquals(4, ring.getOverflowed());
+
+        slow.release.countDown();
+        ring.stop();
+        assertEquals(11, slow.written.stream().filter(e -> !e.getLoggerName().equals(RingBufferAppender.class.getName())).count());
+        assertTrue(slow.written.stream().anyMatch(e -> e.getLevel() == Level.WARN
+                && e.getFormattedMessage().contains("se descartaron 8 eventos")));
+    }
+}
@@ -0,0 +1,51 @@
+package eamelectiva.microserviciolugar.patch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import eamelectiva.microserviciolugar.model.Place;
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+
+class MergePatchTest {
+
+    private Place place() {
+        return new Place(1L, "Parque", "Parque central", PlaceStatus.pendiente, null, null, null);
+    }
+
+    @Test
+    void appliesOnlyChangedFields() {
+        Place place = place();
+        Set<String> changed = MergePatch.of(Place.class).apply(place, Map.of("name", "Parque", "status", "ACEPTADA"));
+        assertEquals(Set.of("status"), changed);
+        assertEquals(PlaceStatus.aceptada, place.getStatus());
+    }
+
+    @Test
+    void nullRemovesOptionalField() {
+        Place place = place();
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("description", null);
+        MergePatch.of(Place.class).apply(place, patch);
+        assertNull(place.getDescription());
+    }
+
+    @Test
+    void rejectsInvalidPatches() {
+        MergePatch<Place> engine = MergePatch.of(Place.class);
+        Map<String, Object> nullName = new HashMap<>();
+        nullName.put("name", null);
+        assertThrows(IllegalArgumentException.class, () -> engine.apply(place(), nullName));
+        assertThrows(IllegalArgumentException.class, () -> engine.apply(place(), Map.of("name", 5)));
+        assertThrows(IllegalArgumentException.class, () -> engine.apply(place(), Map.of("id", 2)));
+        assertThrows(IllegalArgumentException.class, () -> engine.apply(place(), Map.of("status", "otro")));
+        assertTrue(engine.apply(place(), Map.of()).isEmpty());
+    }
+}
@@ -0,0 +1,108 @@
+package eamelectiva.microserviciolugar.patch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PatchCoalescerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<List<Map<String, Object>>> written = new CopyOnWriteArrayList<>();
+    private PatchCoalescer<Long, Integer> coalescer;
+
+    @AfterEach
+    void shutdown() {
+        coalescer.shutdown(1000);
+    }
+
+    private static Map<String, Object> patch(String name) {
+        return Map.of("name", name);
+    }
+
+    @Test
+    void mergesBurstIntoOneWrite() throws Exception {
+        coalescer = new PatchCoalescer<>("test", 100, 2, (id, patches) -> {
+            written.add(patches);
+            return patches.size();
+        }, registry);
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(coalescer.submit(1L, patch("v" + i)));
+        }
+        assertEquals(5, coalescer.pending(1L).size());  // Aún sin escribir
+        for (CompletableFuture<Integer> result : results) {
+            assertEquals(5, result.get(2, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(List.of(patch("v0"), patch("v1"), patch("v2"), patch("v3"), patch("v4"))), written);
+        assertEquals(List.of(), coalescer.pending(1L));
+        assertEquals(5.0, registry.get("patch.coalesce.batch.size").summary().mean());
+        assertEquals(5.0, registry.get("patch.coalesce.ratio").gauge().value());
+    }
+
+    @Test
+    void keepsOrderWhileAWriteIsInFlight() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        coalescer = new PatchCoalescer<>("test", 0, 4, (id, patches) -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.add(patches);
+            concurrent.decrementAndGet();
+            return written.size();
+        }, registry);
+        CompletableFuture<Integer> first = coalescer.submit(1L, patch("a"));
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+        CompletableFuture<Integer> second = coalescer.submit(1L, patch("b"));
+        CompletableFuture<Integer> third = coalescer.submit(1L, patch("c"));
+        assertEquals(List.of(patch("a"), patch("b"), patch("c")), coalescer.pending(1L));
+        release.countDown();
+
+        assertEquals(1, first.get(2, TimeUnit.SECONDS));
+        assertEquals(2, second.get(2, TimeUnit.SECONDS));
+        assertEquals(2, third.get(2, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of(patch("a")), List.of(patch("b"), patch("c"))), written);
+        assertEquals(1, maxConcurrent.get());  // Nunca dos escrituras del mismo id a la vez
+    }
+
+    @Test
+    void failedGroupIsRetriedPatchByPatch() throws Exception {
+        coalescer = new PatchCoalescer<>("test", 100, 1, (id, patches) -> {
+            if (patches.contains(patch("malo"))) {
+                throw new IllegalArgumentException("dato no válido");
+            }
+            written.add(patches);
+            return patches.size();
+        }, registry);
+        CompletableFuture<Integer> good = coalescer.submit(1L, patch("bueno"));
+        CompletableFuture<Integer> bad = coalescer.submit(1L, patch("malo"));
+
+        assertEquals(1, good.get(2, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> bad.get(2, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IllegalArgumentException);
+        assertEquals(List.of(List.of(patch("bueno"))), written);
+        assertEquals(1.0, registry.get("patch.coalesce.failures").counter().count());
+        assertThrows(IllegalArgumentException.class, () -> coalescer.submitAndWait(2L, patch("malo"), 2000));
+    }
+}
@@ -0,0 +1,156 @@
+package eamelectiva.microserviciolugar.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import eamelectiva.microserviciolugar.datasource.ReadWriteRoutingDataSource;
+import eamelectiva.microserviciolugar.warmup.Warmup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Servlet;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRead(new RateLimitProperties.Budget(0.5, 2, 64));
+        filter = new RateLimitFilter(properties, mock(ObjectProvider.class), new SimpleMeterRegistry(), mock(Warmup.class));
+    }
+
+    private MockHttpServletResponse get(String remoteAddr, String clientHeader) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/places");
+        request.setRemoteAddr(remoteAddr);
+        if (clientHeader != null) {
+            request.addHeader("X-Client-Id", clientHeader);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void returns429WithRetryAfterOnceTheBurstIsSpent() throws Exception {
+        assertEquals(200, get("10.0.0.1", null).getStatus());
+        assertEquals(200, get("10.0.0.1", null).getStatus());
+
+        MockHttpServletResponse throttled = get("10.0.0.1", null);
+        assertEquals(429, throttled.getStatus());
+        String retryAfter = throttled.getHeader(HttpHeaders.RETRY_AFTER);
+        assertNotNull(retryAfter);
+        assertTrue(Long.parseLong(retryAfter) >= 1);
+
+        // Otra IP tiene su propio bucket
+        MockHttpServletResponse other = get("10.0.0.2", null);
+        assertEquals(200, other.getStatus());
+        assertNull(other.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void clientHeaderDoesNotBypassTheLimit() throws Exception {
+        get("10.0.0.1", "a");
+        get("10.0.0.1", "b");
+
+        assertEquals(429, get("10.0.0.1", "c").getStatus());
+        assertEquals(1, filter.trackedClients());
+    }
+
+    // Lo mismo que hace Tomcat con server.forward-headers-strategy=native y los proxies de application.properties
+    private MockHttpServletResponse forwarded(String remoteAddr, String forwardedFor) throws Exception {
+        Properties config = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/application.properties")) {
+            config.load(in);
+        }
+        assertEquals("native", config.getProperty("server.forward-headers-strategy"));
+        MockFilterConfig filterConfig = new MockFilterConfig();
+        filterConfig.addInitParameter("internalProxies", config.getProperty("server.tomcat.remoteip.internal-proxies"));
+        RemoteIpFilter remoteIp = new RemoteIpFilter();
+        remoteIp.init(filterConfig);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/places");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(mock(Servlet.class), remoteIp, filter).doFilter(request, response);
+        return response;
+    }
+
+    @Test
+    void clientsBehindTheProxyHaveTheirOwnBuckets() throws Exception {
+        forwarded("10.0.0.1", "203.0.113.5");
+        forwarded("10.0.0.1", "203.0.113.5");
+        assertEquals(429, forwarded("10.0.0.1", "203.0.113.5").getStatus());
+
+        // Mismo proxy, otro cliente
+        assertEquals(200, forwarded("10.0.0.1", "203.0.113.6").getStatus());
+        assertEquals(2, filter.trackedClients());
+    }
+
+    @Test
+    void forwardedForFromOutsideTheProxyRangeIsIgnored() throws Exception {
+        forwarded("203.0.113.9", "198.51.100.1");
+        forwarded("203.0.113.9", "198.51.100.2");
+
+        assertEquals(429, forwarded("203.0.113.9", "198.51.100.3").getStatus());
+        assertEquals(1, filter.trackedClients());
+    }
+
+    private static HikariDataSource pool(int waiting) throws Exception {
+        HikariPoolMXBean bean = mock(HikariPoolMXBean.class);
+        when(bean.getThreadsAwaitingConnection()).thenReturn(waiting);
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(pool.unwrap(HikariDataSource.class)).thenReturn(pool);
+        when(pool.getHikariPoolMXBean()).thenReturn(bean);
+        return pool;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void waitersOnAReplicaPoolHalveTheConcurrencyLimit() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRead(new RateLimitProperties.Budget(100, 100, 2));
+        // Primario libre, réplica con más hilos esperando que max-pool-waiters
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(pool(0), List.of(pool(50)), 5, null);
+        routing.afterPropertiesSet();
+        ObjectProvider<DataSource> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(new LazyConnectionDataSourceProxy(routing));
+        RateLimitFilter limited = new RateLimitFilter(properties, provider, new SimpleMeterRegistry(), mock(Warmup.class));
+
+        // Una segunda lectura mientras la primera sigue en curso: con el tope a la mitad (1) se descarta
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/places");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        limited.doFilter(request, response, (req, res) ->
+                limited.doFilter(new MockHttpServletRequest("GET", "/api/places"), nested, new MockFilterChain()));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(503, nested.getStatus());
+    }
+}
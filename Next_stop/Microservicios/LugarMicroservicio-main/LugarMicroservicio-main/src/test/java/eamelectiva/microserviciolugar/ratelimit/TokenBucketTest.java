@@ -0,0 +1,24 @@
+package eamelectiva.microserviciolugar.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    @Test
+    void allowsBurstThenRefills() {
+        long start = 0;
+        TokenBucket bucket = new TokenBucket(2, 1, start);
+        assertEquals(0, bucket.tryConsume(start));
+        assertEquals(0, bucket.tryConsume(start));
+
+        long wait = bucket.tryConsume(start);
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(0, bucket.tryConsume(start + TimeUnit.SECONDS.toNanos(1)));
+    }
+}
@@ -0,0 +1,150 @@
+package eamelectiva.microserviciolugar.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import eamelectiva.microserviciolugar.cache.WarmPlaceCache;
+import eamelectiva.microserviciolugar.model.ModerationClaim;
+import eamelectiva.microserviciolugar.model.Place;
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+import eamelectiva.microserviciolugar.patch.PatchCoalesceProperties;
+import eamelectiva.microserviciolugar.repository.ArchivedPlaceRepository;
+import eamelectiva.microserviciolugar.repository.PlaceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cola de moderación contra H2 en memoria: reclamos con SKIP LOCKED,
+ * vencimiento del arriendo y decisiones de quien no tiene el reclamo.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)  // La cola abre sus propias transacciones
+class ModerationQueueTest {
+
+    @Autowired
+    private PlaceRepository places;
+    @Autowired
+    private ArchivedPlaceRepository archive;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private ModerationQueue queue;
+    private PlaceService service;
+    private TransactionTemplate transactions;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM lugar");
+        // Con SKIP LOCKED sobre un índice secundario H2 no devuelve ninguna fila si
+        // alguna está bloqueada; MariaDB no tiene ese problema
+        jdbc.execute("DROP INDEX IF EXISTS idx_lugar_status_updated");
+        for (long id = 1; id <= 6; id++) {
+            jdbc.update("INSERT INTO lugar (id, name, status) VALUES (?, ?, 'pendiente')", id, "Lugar " + id);
+        }
+        queue = new ModerationQueue(places, transactionManager, new SimpleMeterRegistry(), 300, 50);
+        service = new PlaceService(places, null, mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(),
+                archive, mock(PlaceStats.class), mock(WarmPlaceCache.class), transactionManager,
+                new PatchCoalesceProperties());
+        transactions = new TransactionTemplate(transactionManager);
+    }
+
+    private static List<Long> ids(ModerationClaim claim) {
+        return claim.places().stream().map(Place::getId).toList();
+    }
+
+    // acceptPlace/rejectPlace son @Transactional en el bean real
+    private boolean decide(Supplier<Boolean> decision) {
+        return Boolean.TRUE.equals(transactions.execute(status -> decision.get()));
+    }
+
+    @Test
+    void concurrentClaimSkipsRowsLockedByAnotherClaim() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Otra transacción de reclamo tiene bloqueadas las dos primeras filas
+        CompletableFuture<List<Long>> other = CompletableFuture.supplyAsync(() -> transactions.execute(status -> {
+            List<Long> ids = places.lockClaimableIds("ana", Instant.now(), 2);
+            locked.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ids;
+        }));
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        // No espera al otro reclamo: recibe las filas siguientes
+        ModerationClaim claim = CompletableFuture.supplyAsync(() -> queue.claim("luis", 2)).get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        assertEquals(List.of(1L, 2L), other.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(3L, 4L), ids(claim));
+        assertNull(places.findById(1L).orElseThrow().getClaimedBy());
+        assertEquals("luis", places.findById(3L).orElseThrow().getClaimedBy());
+    }
+
+    @Test
+    void claimsAreExclusiveUntilTheLeaseExpires() {
+        assertEquals(List.of(1L, 2L), ids(queue.claim("ana", 2)));
+        assertEquals(List.of(3L, 4L), ids(queue.claim("luis", 2)));
+        // Volver a reclamar renueva los propios
+        assertEquals(List.of(1L, 2L), ids(queue.claim("ana", 2)));
+
+        jdbc.update("UPDATE lugar SET claim_expires_at = ? WHERE claimed_by = 'ana'",
+                Timestamp.from(Instant.now().minusSeconds(1)));
+        assertEquals(List.of(1L, 2L), ids(queue.claim("luis", 2)));
+
+        jdbc.update("UPDATE lugar SET claim_expires_at = ? WHERE id = 5",
+                Timestamp.from(Instant.now().minusSeconds(1)));
+        jdbc.update("UPDATE lugar SET claimed_by = 'pedro' WHERE id = 5");
+        queue.releaseExpiredClaims();
+        assertNull(places.findById(5L).orElseThrow().getClaimedBy());
+    }
+
+    @Test
+    void onlyTheClaimOwnerDecidesWhenAModeratorIsGiven() {
+        queue.claim("ana", 2);
+
+        assertThrows(IllegalStateException.class,
+                () -> decide(() -> service.acceptPlace(1L, "luis")));
+        assertEquals(PlaceStatus.pendiente, places.findById(1L).orElseThrow().getStatus());
+
+        assertTrue(decide(() -> service.acceptPlace(1L, "ana")));
+        Place accepted = places.findById(1L).orElseThrow();
+        assertEquals(PlaceStatus.aceptada, accepted.getStatus());
+        assertNull(accepted.getClaimedBy());
+
+        // Sin X-Moderador no se revisan los reclamos (ver la documentación del endpoint)
+        assertTrue(decide(() -> service.rejectPlace(2L, null)));
+        assertEquals(PlaceStatus.rechazada, places.findById(2L).orElseThrow().getStatus());
+        assertFalse(decide(() -> service.rejectPlace(2L, "ana")));
+    }
+}
@@ -0,0 +1,121 @@
+package eamelectiva.microserviciolugar.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import eamelectiva.microserviciolugar.cache.WarmPlaceCache;
+import eamelectiva.microserviciolugar.model.ArchivedPlace;
+import eamelectiva.microserviciolugar.model.Place;
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+import eamelectiva.microserviciolugar.patch.PatchCoalesceProperties;
+import eamelectiva.microserviciolugar.repository.ArchivedPlaceRepository;
+import eamelectiva.microserviciolugar.repository.PlaceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Archivado por lotes contra H2 en memoria (LIMIT ... FOR UPDATE SKIP LOCKED
+ * incluido) y lectura de los archivados con includeArchived.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)  // Cada lote abre su propia transacción
+class PlaceArchiverTest {
+
+    private static final Instant OLD = Instant.now().minus(Duration.ofDays(60));
+
+    @Autowired
+    private PlaceRepository places;
+    @Autowired
+    private ArchivedPlaceRepository archive;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final PlaceStats stats = mock(PlaceStats.class);
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM lugar_archivo");
+        jdbc.update("DELETE FROM lugar");
+        insert(1, PlaceStatus.rechazada, OLD);
+        insert(2, PlaceStatus.rechazada, OLD);
+        insert(3, PlaceStatus.rechazada, OLD);
+        insert(4, PlaceStatus.rechazada, null);
+        insert(5, PlaceStatus.rechazada, null);
+        insert(6, PlaceStatus.rechazada, Instant.now());
+        insert(7, PlaceStatus.aceptada, OLD);
+    }
+
+    private void insert(long id, PlaceStatus status, Instant updatedAt) {
+        jdbc.update("INSERT INTO lugar (id, name, description, status, updated_at) VALUES (?, ?, ?, ?, ?)",
+                id, "Lugar " + id, "Descripción " + id, status.name(), updatedAt != null ? Timestamp.from(updatedAt) : null);
+    }
+
+    private PlaceArchiver archiver() {
+        // Lotes de 2 para que 3 filas necesiten dos vueltas
+        return new PlaceArchiver(places, archive, transactionManager, events, stats, 30, 2, 0);
+    }
+
+    @Test
+    void movesOldRejectedPlacesInBatches() {
+        archiver().archiveRejectedPlaces();
+
+        assertEquals(List.of(1L, 2L, 3L), archive.findAll().stream().map(ArchivedPlace::getId).sorted().toList());
+        assertEquals(List.of(4L, 5L, 6L, 7L), places.findAll().stream().map(Place::getId).sorted().toList());
+        verify(events, times(3)).publishEvent(any(Object.class));
+        verify(stats).removedAfterCommit(PlaceStatus.rechazada, 2);
+        verify(stats).removedAfterCommit(PlaceStatus.rechazada, 1);
+    }
+
+    @Test
+    void stampsRejectedWithoutDateInBatchesInsteadOfArchivingThem() {
+        assertEquals(2, archiver().stampBatch(Instant.now()));
+        assertEquals(0, archiver().stampBatch(Instant.now()));
+
+        archiver().archiveRejectedPlaces();
+
+        assertNotNull(places.findById(4L).orElseThrow().getUpdatedAt());
+        assertNotNull(places.findById(5L).orElseThrow().getUpdatedAt());
+        assertEquals(3, archive.count());
+    }
+
+    @Test
+    void archivedPlacesAreOnlyReturnedWithIncludeArchived() {
+        archiver().archiveRejectedPlaces();
+        PlaceService service = new PlaceService(places, null, events, new SimpleMeterRegistry(), archive, stats,
+                mock(WarmPlaceCache.class), transactionManager, new PatchCoalesceProperties());
+
+        assertNull(service.findById(1L, false));
+        Place archived = service.findById(1L, true);
+        assertEquals(PlaceStatus.rechazada, archived.getStatus());
+        assertEquals("Lugar 1", archived.getName());
+
+        assertEquals(List.of(4L, 5L, 6L), service.findRejectedPlaces(false).stream().map(Place::getId).sorted().toList());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L),
+                service.findRejectedPlaces(true).stream().map(Place::getId).sorted().toList());
+    }
+}
@@ -0,0 +1,77 @@
+package eamelectiva.microserviciolugar.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import eamelectiva.microserviciolugar.model.PlaceStatus;
+import eamelectiva.microserviciolugar.repository.PlaceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PlaceStatsTest {
+
+    private final PlaceRepository repository = mock(PlaceRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final PlaceStats stats = new PlaceStats(repository, transactionManager, registry);
+
+    @Test
+    void seedsAndFollowsTransitions() {
+        when(repository.countByStatus()).thenReturn(List.of(
+                new Object[] {PlaceStatus.pendiente, 3L}, new Object[] {PlaceStatus.aceptada, 1L}));
+        stats.seed();
+        stats.transitionAfterCommit(null, PlaceStatus.pendiente);
+        stats.transitionAfterCommit(PlaceStatus.pendiente, PlaceStatus.rechazada);
+        stats.removedAfterCommit(PlaceStatus.rechazada, 1);
+        assertEquals(3L, stats.snapshot().get("pendiente"));
+        assertEquals(1L, stats.snapshot().get("aceptada"));
+        assertEquals(0L, stats.snapshot().get("rechazada"));
+        assertEquals(4L, stats.snapshot().get("total"));
+        assertEquals(0.0, registry.counter("places.count.drift").count());
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        when(repository.countByStatus()).thenReturn(List.<Object[]>of(new Object[] {PlaceStatus.pendiente, 2L}));
+        stats.seed();
+        stats.transitionAfterCommit(null, PlaceStatus.aceptada);  // Cambio que la base no tiene
+        stats.reconcile();
+        assertEquals(2L, stats.snapshot().get("pendiente"));
+        assertEquals(0L, stats.snapshot().get("aceptada"));
+        assertEquals(1.0, registry.counter("places.count.drift").count());
+    }
+
+    @Test
+    void refreshPicksUpRemoteChangesWithoutCountingDrift() {
+        when(repository.countByStatus()).thenReturn(List.<Object[]>of(new Object[] {PlaceStatus.pendiente, 2L}));
+        stats.seed();
+        // Otra instancia aceptó uno de los pendientes
+        when(repository.countByStatus()).thenReturn(List.of(
+                new Object[] {PlaceStatus.pendiente, 1L}, new Object[] {PlaceStatus.aceptada, 1L}));
+        stats.refresh();
+        assertEquals(1L, stats.snapshot().get("pendiente"));
+        assertEquals(1L, stats.snapshot().get("aceptada"));
+        assertEquals(0.0, registry.counter("places.count.drift").count());
+    }
+
+    @Test
+    void countsOnThePrimary() {
+        when(repository.countByStatus()).thenReturn(List.of());
+        stats.seed();
+        stats.reconcile();
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, atLeastOnce()).getTransaction(definitions.capture());
+        // Una transacción de solo lectura iría a una réplica
+        definitions.getAllValues().forEach(definition -> assertFalse(definition.isReadOnly()));
+    }
+}
@@ -0,0 +1,39 @@
+package eamelectiva.microserviciolugar.warmup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyConvergenceTest {
+
+    @Test
+    void stableAfterConsecutiveRoundsWithinTolerance() {
+        LatencyConvergence convergence = new LatencyConvergence(3, 10);
+        for (long p90 : new long[] {5000, 2000, 1200, 1000, 950}) {
+            convergence.addRound(p90);
+        }
+        assertFalse(convergence.isStable());  // 1200 -> 1000 está fuera del 10%
+        convergence.addRound(1020);
+        assertFalse(convergence.isStable());
+        convergence.addRound(990);
+        assertTrue(convergence.isStable());
+        assertEquals(7, convergence.rounds());
+        assertEquals(5000, convergence.firstP90());
+        assertEquals(990, convergence.lastP90());
+    }
+
+    @Test
+    void aSpikeRestartsTheStreak() {
+        LatencyConvergence convergence = new LatencyConvergence(2, 10);
+        convergence.addRound(1000);
+        convergence.addRound(1000);
+        convergence.addRound(3000);
+        convergence.addRound(1000);
+        assertFalse(convergence.isStable());
+        convergence.addRound(1000);
+        convergence.addRound(1050);
+        assertTrue(convergence.isStable());
+    }
+}
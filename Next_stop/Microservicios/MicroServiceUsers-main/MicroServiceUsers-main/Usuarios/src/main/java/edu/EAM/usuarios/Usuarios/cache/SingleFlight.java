@@ -0,0 +1,102 @@
+package edu.EAM.usuarios.Usuarios.cache;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.EAM.usuarios.Usuarios.datasource.ReadYourWrites;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Agrupa lecturas idénticas concurrentes: mientras una consulta para una
+ * clave está en curso, los demás llamadores con la misma clave esperan su
+ * resultado en vez de lanzar otra consulta igual a la base de datos.
+ *
+ * Las escrituras invalidan la clave después del commit; quien llegue a partir
+ * de ese momento inicia una consulta nueva en vez de unirse a una que pudo
+ * haber leído el valor anterior.
+ *
+ * Una petición que debe leer del primario ({@link ReadYourWrites}: tras
+ * escribir o con X-Consistency: strong) no se une a una consulta en curso:
+ * la ruta la decide el hilo que la lanzó y pudo ir a una réplica.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(String name, MeterRegistry registry) {
+        FunctionCounter.builder("singleflight.executed", executed, LongAdder::sum)
+                .description("Consultas ejecutadas contra la base de datos")
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("singleflight.coalesced", coalesced, LongAdder::sum)
+                .description("Peticiones atendidas con el resultado de otra consulta en curso")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        if (ReadYourWrites.requiresPrimary()) {
+            executed.increment();
+            return loader.get();
+        }
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        executed.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Invalida las claves cuando confirme la transacción actual (o ya, si no hay)
+    @SafeVarargs
+    public final void invalidateAfterCommit(K... keys) {
+        List<K> list = List.of(keys);
+        invalidateAfterCommit(list::contains);
+    }
+
+    public void invalidateAfterCommit(Predicate<K> keys) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    inFlight.keySet().removeIf(keys);
+                }
+            });
+        } else {
+            inFlight.keySet().removeIf(keys);
+        }
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+}
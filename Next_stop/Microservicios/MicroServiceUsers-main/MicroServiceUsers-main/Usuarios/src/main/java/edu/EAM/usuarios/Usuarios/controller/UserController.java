@@ -1,6 +1,7 @@
 package edu.EAM.usuarios.Usuarios.controller;
 
 
+import edu.EAM.usuarios.Usuarios.model.BulkResult;
 import edu.EAM.usuarios.Usuarios.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,6 +22,9 @@ import java.util.Map;
 @Tag(name = "Usuarios", description = "Operaciones relacionadas con usuarios")
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_PAGE = 10000;
+
     private final UserService service;
 
     @Autowired
@@ -28,18 +32,71 @@ public class UserController {
         this.service = service;
     }
 
-    @Operation(summary = "Obtener todos los usuarios", description = "Devuelve una lista con todos los usuarios registrados")
-    @ApiResponse(responseCode = "200", description = "Lista de usuarios encontrada")
+    @Operation(summary = "Obtener todos los usuarios",
+            description = "Devuelve una lista con todos los usuarios registrados; con size, solo esa página (ordenada por ID)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lista de usuarios encontrada"),
+            @ApiResponse(responseCode = "400", description = "Página o tamaño no válidos")
+    })
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return new ResponseEntity<>(service.findAll(), HttpStatus.OK);
+    public ResponseEntity<List<User>> getAllUsers(@RequestParam(required = false) Integer page,
+                                                  @RequestParam(required = false) Integer size) {
+        if (size == null) {
+            return new ResponseEntity<>(service.findAll(), HttpStatus.OK);
+        }
+        if (!validPage(page, size)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(service.findAll(page != null ? page : 0, size), HttpStatus.OK);
     }
 
-    @Operation(summary = "Buscar usuarios por nombre", description = "Filtra los usuarios por coincidencia en el nombre")
-    @ApiResponse(responseCode = "200", description = "Usuarios encontrados")
+    @Operation(summary = "Buscar usuarios por nombre",
+            description = "Filtra los usuarios por coincidencia en el nombre; con size, solo esa página (ordenada por ID)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Usuarios encontrados"),
+            @ApiResponse(responseCode = "400", description = "Página o tamaño no válidos")
+    })
     @GetMapping("/search")
-    public ResponseEntity<List<User>> getUsersByName(@RequestParam String name) {
-        return new ResponseEntity<>(service.findByName(name), HttpStatus.OK);
+    public ResponseEntity<List<User>> getUsersByName(@RequestParam String name,
+                                                     @RequestParam(required = false) Integer page,
+                                                     @RequestParam(required = false) Integer size) {
+        if (size == null) {
+            return new ResponseEntity<>(service.findByName(name), HttpStatus.OK);
+        }
+        if (!validPage(page, size)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(service.findByName(name, page != null ? page : 0, size), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Obtener varios usuarios por ID", description = "Una sola consulta; los IDs inexistentes se omiten")
+    @ApiResponse(responseCode = "200", description = "Usuarios encontrados")
+    @GetMapping("/bulk")
+    public ResponseEntity<List<User>> getUsersByIds(@RequestParam List<String> ids) {
+        return new ResponseEntity<>(service.findAllById(ids), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Obtener varios usuarios por ID (lista en el cuerpo)", description = "Para listas de IDs que no caben en la URL")
+    @ApiResponse(responseCode = "200", description = "Usuarios encontrados")
+    @PostMapping("/bulk/get")
+    public ResponseEntity<List<User>> getUsersByIdsInBody(@RequestBody List<String> ids) {
+        return new ResponseEntity<>(service.findAllById(ids), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Crear o actualizar usuarios en bloque",
+            description = "Con un ID existente se reemplaza el usuario; sin ID o con uno que no existe se crea "
+                    + "con ese ID. Devuelve el resultado de cada elemento")
+    @ApiResponse(responseCode = "200", description = "Resultado por elemento (creado, actualizado o error)")
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkResult>> saveUsers(@RequestBody List<User> users) {
+        return new ResponseEntity<>(service.saveAll(users), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Eliminar usuarios en bloque")
+    @ApiResponse(responseCode = "200", description = "Resultado por elemento (eliminado, no_encontrado o error)")
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<List<BulkResult>> deleteUsers(@RequestBody List<String> ids) {
+        return new ResponseEntity<>(service.deleteAllById(ids), HttpStatus.OK);
     }
 
     @Operation(summary = "Obtener usuario por ID")
@@ -80,11 +137,18 @@ public class UserController {
     @Operation(summary = "Actualizar parcialmente un usuario")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Usuario actualizado parcialmente"),
+            @ApiResponse(responseCode = "400", description = "Campos o tipos no válidos en el patch"),
             @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
     })
-    @PatchMapping("/{id}")
+    @PatchMapping(value = "/{id}", consumes = {
+            "application/merge-patch+json", "application/json", "application/x-jackson-smile", "application/cbor"})
     public ResponseEntity<User> patchUser(@PathVariable String id, @RequestBody Map<String, Object> updates) {
-        User updated = service.patch(id, updates);
+        User updated;
+        try {
+            updated = service.patch(id, updates);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
         return updated != null ?
                 new ResponseEntity<>(updated, HttpStatus.OK) :
                 new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -104,4 +168,8 @@ public class UserController {
         }
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
-}
\ No newline at end of file
+
+    private static boolean validPage(Integer page, int size) {
+        return (page == null || page >= 0 && page <= MAX_PAGE) && size > 0 && size <= MAX_PAGE_SIZE;
+    }
+}
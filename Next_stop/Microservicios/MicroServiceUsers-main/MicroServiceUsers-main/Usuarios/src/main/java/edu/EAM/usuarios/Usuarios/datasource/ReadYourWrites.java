@@ -0,0 +1,27 @@
+package edu.EAM.usuarios.Usuarios.datasource;
+
+/**
+ * Lectura de lo propio escrito: una vez que la petición actual escribió en el
+ * primario, sus lecturas posteriores también van al primario en lugar de a una
+ * réplica que quizá aún no tiene el cambio. El cliente puede forzarlo desde el
+ * inicio con el header X-Consistency: strong.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void markWrite() {
+        PRIMARY_ONLY.set(Boolean.TRUE);
+    }
+
+    public static boolean requiresPrimary() {
+        return PRIMARY_ONLY.get() != null;
+    }
+
+    public static void clear() {
+        PRIMARY_ONLY.remove();
+    }
+}
@@ -0,0 +1,29 @@
+package edu.EAM.usuarios.Usuarios.datasource;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Limita el alcance de ReadYourWrites a la petición actual
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String CONSISTENCY_HEADER = "X-Consistency";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if ("strong".equalsIgnoreCase(request.getHeader(CONSISTENCY_HEADER))) {
+            ReadYourWrites.markWrite();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package edu.EAM.usuarios.Usuarios.jfr;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Lee una grabación .jfr y muestra la latencia de cada operación (eventos
+ * "nextstop.*") y, por ruta HTTP, cuánto de la petición se fue en cada tipo
+ * de trabajo. Solo usa el JDK, así que se puede lanzar desde el fuente:
+ *
+ *   java src/main/java/edu/EAM/usuarios/Usuarios/jfr/JfrReport.java usuarios.jfr
+ *
+ * Para obtener la grabación del contenedor:
+ *   docker exec ms_users jcmd 1 JFR.dump name=nextstop filename=/tmp/usuarios.jfr
+ *
+ * El desglose cuenta solo los eventos del mismo hilo que la petición; un
+ * evento dentro de otro (un flush dentro de una consulta) queda incluido en
+ * el de fuera. "resto" es el tiempo sin evento: controlador, filtros, caché.
+ * Con sharding, las consultas en paralelo corren en hilos shard-query: salen
+ * en la tabla de operaciones pero en el desglose quedan dentro de "resto".
+ *
+ * Con spring.threads.virtual.enabled también lista los jdk.VirtualThreadPinned
+ * (un hilo virtual que esperó sin soltar su hilo portador, por defecto desde
+ * 20 ms) agrupados por el primer marco fuera del JDK: el driver, Hikari o
+ * nuestro código.
+ */
+public final class JfrReport {
+
+    static final String PREFIX = "nextstop.";
+    static final String REQUEST = "HttpRequest";
+    static final String PINNED = "jdk.VirtualThreadPinned";
+    static final List<String> PARTS = List.of("RepositoryCall", "RemoteCall", "Patch", "Flush", "Serialization");
+    private static final List<String> PART_LABELS = List.of("repositorio", "remoto", "patch", "flush", "serializ.");
+
+    record Pin(String site, long nanos) {
+    }
+
+    record Span(String kind, String operation, long thread, long start, long end) {
+        long nanos() {
+            return end - start;
+        }
+    }
+
+    // Suma de los tramos de las peticiones de una ruta
+    static final class Breakdown {
+        int count;
+        long total;
+        final long[] parts = new long[PARTS.size()];
+
+        long rest() {
+            return total - Arrays.stream(parts).sum();
+        }
+    }
+
+    private final Map<String, long[]> durations = new TreeMap<>();
+    private final Map<String, Breakdown> requests = new TreeMap<>();
+    // Por sitio: {veces, nanos}
+    private final Map<String, long[]> pinned = new TreeMap<>();
+
+    JfrReport(List<Span> spans) {
+        this(spans, List.of());
+    }
+
+    JfrReport(List<Span> spans, List<Pin> pins) {
+        Map<String, List<Long>> byOperation = new HashMap<>();
+        for (Span span : spans) {
+            byOperation.computeIfAbsent(span.kind() + "\t" + span.operation(), k -> new ArrayList<>()).add(span.nanos());
+        }
+        byOperation.forEach((key, values) -> {
+            long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+            durations.put(key, sorted);
+        });
+        Map<Long, List<Span>> byThread = new HashMap<>();
+        spans.forEach(span -> byThread.computeIfAbsent(span.thread(), t -> new ArrayList<>()).add(span));
+        byThread.values().forEach(this::breakDown);
+        for (Pin pin : pins) {
+            long[] totals = pinned.computeIfAbsent(pin.site(), k -> new long[2]);
+            totals[0]++;
+            totals[1] += pin.nanos();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: java JfrReport.java <grabación.jfr>");
+            System.exit(2);
+        }
+        read(Path.of(args[0])).print(System.out);
+    }
+
+    public static JfrReport read(Path path) throws IOException {
+        List<Span> spans = new ArrayList<>();
+        List<Pin> pins = new ArrayList<>();
+        try (RecordingFile file = new RecordingFile(path)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String name = event.getEventType().getName();
+                if (name.equals(PINNED)) {
+                    pins.add(new Pin(pinnedSite(event.getStackTrace()), event.getDuration().toNanos()));
+                    continue;
+                }
+                if (!name.startsWith(PREFIX)) {
+                    continue;
+                }
+                RecordedThread thread = event.getThread();
+                spans.add(new Span(name.substring(PREFIX.length()), event.getString("operation"),
+                        thread != null ? thread.getId() : -1, nanos(event.getStartTime()), nanos(event.getEndTime())));
+            }
+        }
+        return new JfrReport(spans, pins);
+    }
+
+    // Primer marco que no es del JDK: quién bloqueó dentro de un synchronized
+    static String pinnedSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "(sin pila)";
+        }
+        RecordedFrame top = stackTrace.getFrames().get(0);
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                top = frame;
+                break;
+            }
+        }
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+
+    // Duraciones ordenadas por "tipo\toperación"
+    Map<String, long[]> durations() {
+        return durations;
+    }
+
+    Map<String, Breakdown> requests() {
+        return requests;
+    }
+
+    Map<String, long[]> pinned() {
+        return pinned;
+    }
+
+    public void print(PrintStream out) {
+        out.println("Latencia por operación (ms)");
+        out.printf("%-15s %-45s %7s %10s %8s %8s %8s %8s %8s%n",
+                "tipo", "operación", "n", "total", "media", "p50", "p95", "p99", "máx");
+        durations.forEach((key, values) -> {
+            String[] parts = key.split("\t", 2);
+            long total = Arrays.stream(values).sum();
+            out.printf("%-15s %-45s %7d %10.1f %8.3f %8.3f %8.3f %8.3f %8.3f%n", parts[0], parts[1], values.length,
+                    ms(total), ms(total / values.length), ms(percentile(values, 0.50)),
+                    ms(percentile(values, 0.95)), ms(percentile(values, 0.99)), ms(values[values.length - 1]));
+        });
+        if (requests.isEmpty()) {
+            return;
+        }
+        out.println();
+        out.println("Desglose por petición (ms de media)");
+        out.printf("%-45s %7s %8s", "ruta", "n", "total");
+        PART_LABELS.forEach(label -> out.printf(" %11s", label));
+        out.printf(" %8s%n", "resto");
+        requests.forEach((route, breakdown) -> {
+            out.printf("%-45s %7d %8.3f", route, breakdown.count, ms(breakdown.total / breakdown.count));
+            for (long part : breakdown.parts) {
+                out.printf(" %11.3f", ms(part / breakdown.count));
+            }
+            out.printf(" %8.3f%n", ms(breakdown.rest() / breakdown.count));
+        });
+        if (pinned.isEmpty()) {
+            return;
+        }
+        out.println();
+        out.println("Hilos virtuales fijados a su portador (" + PINNED + ")");
+        out.printf("%-70s %7s %10s %8s%n", "sitio", "n", "total ms", "media");
+        pinned.forEach((site, totals) -> out.printf("%-70s %7d %10.1f %8.3f%n",
+                site, totals[0], ms(totals[1]), ms(totals[1] / totals[0])));
+    }
+
+    /**
+     * Reparte cada petición del hilo entre los eventos que caen dentro de ella.
+     * Las peticiones de un mismo hilo no se solapan, así que basta un recorrido
+     * en orden de inicio.
+     */
+    private void breakDown(List<Span> spans) {
+        spans.sort(Comparator.comparingLong(Span::start).thenComparing(Comparator.comparingLong(Span::end).reversed()));
+        List<Span> calls = spans.stream().filter(span -> !span.kind().equals(REQUEST)).toList();
+        int next = 0;
+        for (Span request : spans) {
+            if (!request.kind().equals(REQUEST)) {
+                continue;
+            }
+            Breakdown breakdown = requests.computeIfAbsent(request.operation(), k -> new Breakdown());
+            breakdown.count++;
+            breakdown.total += request.nanos();
+            while (next < calls.size() && calls.get(next).start() < request.start()) {
+                next++;
+            }
+            long coveredUntil = Long.MIN_VALUE;
+            while (next < calls.size() && calls.get(next).start() < request.end()) {
+                Span call = calls.get(next++);
+                int part = PARTS.indexOf(call.kind());
+                if (part < 0 || call.start() < coveredUntil) {
+                    continue;  // Anidado en el anterior: ya está contado
+                }
+                breakdown.parts[part] += Math.min(call.end(), request.end()) - call.start();
+                coveredUntil = call.end();
+            }
+        }
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+}
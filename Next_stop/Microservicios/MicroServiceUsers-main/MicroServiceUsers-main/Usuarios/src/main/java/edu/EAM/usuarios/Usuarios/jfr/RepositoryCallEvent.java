@@ -0,0 +1,29 @@
+package edu.EAM.usuarios.Usuarios.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Llamada a un repositorio de Spring Data (incluye la transacción propia del repositorio)
+@Name("nextstop.RepositoryCall")
+@Label("Llamada a repositorio")
+@Category({"Next Stop", "Usuarios"})
+@StackTrace(false)
+public final class RepositoryCallEvent extends jdk.jfr.Event {
+
+    @Label("Operación")
+    String operation;
+
+    @Label("Error")
+    boolean failed;
+
+    void finish(String repository, String method, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.operation = repository + "." + method;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package edu.EAM.usuarios.Usuarios.logging;
+
+import java.util.Iterator;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Métricas del RingBufferAppender: logging.async.dropped{reason} y
+ * logging.async.queue. El appender se busca en cada lectura porque Spring
+ * Boot puede reiniciar la configuración de Logback.
+ */
+@Component
+public class LogMetrics {
+
+    public LogMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("logging.async.dropped", this, m -> appender().map(RingBufferAppender::getDiscarded).orElse(0L))
+                .tag("reason", "discarded")
+                .description("Eventos bajo WARN descartados con la cola casi llena")
+                .register(registry);
+        FunctionCounter.builder("logging.async.dropped", this, m -> appender().map(RingBufferAppender::getOverflowed).orElse(0L))
+                .tag("reason", "overflow")
+                .description("Eventos perdidos con la cola llena")
+                .register(registry);
+        Gauge.builder("logging.async.queue", this, m -> appender().map(RingBufferAppender::getQueued).orElse(0))
+                .register(registry);
+    }
+
+    static Optional<RingBufferAppender> appender() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return Optional.empty();
+        }
+        Iterator<Appender<ILoggingEvent>> it = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (it.hasNext()) {
+            if (it.next() instanceof RingBufferAppender ring) {
+                return Optional.of(ring);
+            }
+        }
+        return Optional.empty();
+    }
+}
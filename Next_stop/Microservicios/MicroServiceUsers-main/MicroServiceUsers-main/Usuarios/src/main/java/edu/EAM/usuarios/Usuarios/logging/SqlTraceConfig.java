@@ -0,0 +1,29 @@
+package edu.EAM.usuarios.Usuarios.logging;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Trazas de SQL sin escribir cada sentencia: una muestra aleatoria
+ * (SampledSqlInspector) y las consultas que superan sql.trace.slow-query-ms,
+ * que Hibernate registra con su duración en el logger org.hibernate.SQL_SLOW.
+ */
+@Configuration
+public class SqlTraceConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlTrace(@Value("${sql.trace.sample-rate:0}") double sampleRate,
+                                                  @Value("${sql.trace.slow-query-ms:200}") long slowQueryMs) {
+        return properties -> {
+            if (sampleRate > 0) {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SampledSqlInspector(sampleRate));
+            }
+            if (slowQueryMs > 0) {
+                properties.put(AvailableSettings.LOG_SLOW_QUERY, slowQueryMs);
+            }
+        };
+    }
+}
@@ -2,10 +2,10 @@ package edu.EAM.usuarios.Usuarios.model;
 import jakarta.persistence.Column;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,9 +17,10 @@ import lombok.Setter;
 @NoArgsConstructor  // Necesario para JPA
 @Entity
 @Table(name = "users")  // Nombre de la tabla en DB
+@DynamicUpdate  // El UPDATE solo incluye las columnas modificadas
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)  // Genera UUID automáticamente
+    @UuidOrAssigned  // Genera UUID automáticamente (o respeta el asignado con sharding)
     private String id;
     
     private String name;
@@ -0,0 +1,19 @@
+package edu.EAM.usuarios.Usuarios.model;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Id UUID generado al insertar, salvo que ya venga asignado. Con sharding el
+ * servicio asigna el id antes de guardar para saber a qué base va.
+ */
+@IdGeneratorType(UuidOrAssignedGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface UuidOrAssigned {
+}
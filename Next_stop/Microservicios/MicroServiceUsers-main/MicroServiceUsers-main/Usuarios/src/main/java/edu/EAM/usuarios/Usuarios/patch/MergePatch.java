@@ -0,0 +1,226 @@
+package edu.EAM.usuarios.Usuarios.patch;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import edu.EAM.usuarios.Usuarios.jfr.PatchEvent;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.Id;
+
+/**
+ * Motor de JSON Merge Patch (RFC 7396) para entidades JPA.
+ *
+ * Los campos de cada clase se resuelven una sola vez y se guardan como
+ * accesores compilados (LambdaMetafactory), así que aplicar un patch no usa
+ * reflexión por llamada. Los objetos {@link Embeddable} (por ejemplo Address)
+ * se fusionan de forma recursiva.
+ */
+public final class MergePatch<T> {
+
+    private static final Map<Class<?>, MergePatch<?>> CACHE = new ConcurrentHashMap<>();
+
+    private final Supplier<T> constructor;
+    private final Map<String, Property> properties;
+
+    private MergePatch(Class<T> type) {
+        this.constructor = type.isAnnotationPresent(Embeddable.class) ? compileConstructor(type) : null;
+        this.properties = resolveProperties(type);
+    }
+
+    // Obtiene (o compila la primera vez) el motor para una clase
+    @SuppressWarnings("unchecked")
+    public static <T> MergePatch<T> of(Class<T> type) {
+        return (MergePatch<T>) CACHE.computeIfAbsent(type, MergePatch::new);
+    }
+
+    /**
+     * Aplica el patch sobre la entidad y devuelve las rutas de los campos que
+     * cambiaron realmente (por ejemplo "name" o "address.city").
+     *
+     * @throws IllegalArgumentException si el patch trae campos desconocidos,
+     *         tipos incorrectos o null en un campo obligatorio
+     */
+    public Set<String> apply(T target, Map<String, ?> patch) {
+        PatchEvent event = new PatchEvent();
+        event.begin();
+        Set<String> changed = new LinkedHashSet<>();
+        try {
+            apply(target, patch, "", changed);
+        } finally {
+            event.finish(target.getClass(), patch.size(), changed.size());
+        }
+        return Collections.unmodifiableSet(changed);
+    }
+
+    private void apply(T target, Map<?, ?> patch, String prefix, Set<String> changed) {
+        for (Map.Entry<?, ?> entry : patch.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            Property property = properties.get(key);
+            if (property == null) {
+                throw new IllegalArgumentException("Campo no permitido: " + prefix + key);
+            }
+            property.merge(target, entry.getValue(), prefix + key, changed);
+        }
+    }
+
+    private static <T> Map<String, Property> resolveProperties(Class<T> type) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Map<String, Property> resolved = new LinkedHashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                    || field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(JsonIgnore.class)) {
+                continue;  // El ID y los campos que no salen en el JSON nunca se modifican por patch
+            }
+            Class<?> fieldType = field.getType();
+            String accessor = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+            try {
+                MethodHandle getter = lookup.findVirtual(type, "get" + accessor, MethodType.methodType(fieldType));
+                MethodHandle setter = lookup.findVirtual(type, "set" + accessor, MethodType.methodType(void.class, fieldType));
+                Column column = field.getAnnotation(Column.class);
+                boolean nullable = column == null || column.nullable();
+                // Mismo nombre que expone Jackson a partir del getter (Email -> email)
+                String jsonName = Character.toLowerCase(accessor.charAt(0)) + accessor.substring(1);
+                resolved.put(jsonName, new Property(fieldType, compileGetter(lookup, type, fieldType, getter),
+                        compileSetter(lookup, type, fieldType, setter), nullable));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("No se pudo resolver el campo " + type.getSimpleName() + "." + field.getName(), e);
+            }
+        }
+        return Collections.unmodifiableMap(resolved);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> compileGetter(MethodHandles.Lookup lookup, Class<?> owner,
+                                                         Class<?> fieldType, MethodHandle getter) {
+        try {
+            return (Function<Object, Object>) LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    getter,
+                    MethodType.methodType(fieldType, owner)).getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("No se pudo compilar el getter de " + owner.getSimpleName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> compileSetter(MethodHandles.Lookup lookup, Class<?> owner,
+                                                           Class<?> fieldType, MethodHandle setter) {
+        try {
+            return (BiConsumer<Object, Object>) LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    setter,
+                    MethodType.methodType(void.class, owner, fieldType)).getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("No se pudo compilar el setter de " + owner.getSimpleName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> compileConstructor(Class<T> type) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            return (Supplier<T>) LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructor,
+                    MethodType.methodType(type)).getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("No se pudo compilar el constructor de " + type.getSimpleName(), e);
+        }
+    }
+
+    // Accesor compilado de un campo
+    private record Property(Class<?> type, Function<Object, Object> getter,
+                            BiConsumer<Object, Object> setter, boolean nullable) {
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void merge(Object target, Object value, String path, Set<String> changed) {
+            Object current = getter.apply(target);
+            if (value == null) {
+                // RFC 7396: null elimina el valor
+                if (!nullable) {
+                    throw new IllegalArgumentException("El campo " + path + " es obligatorio");
+                }
+                if (current != null) {
+                    setter.accept(target, null);
+                    changed.add(path);
+                }
+                return;
+            }
+            if (type.isAnnotationPresent(Embeddable.class)) {
+                if (!(value instanceof Map<?, ?> nested)) {
+                    throw new IllegalArgumentException("El campo " + path + " debe ser un objeto");
+                }
+                MergePatch embedded = MergePatch.of(type);
+                Object target2 = current != null ? current : embedded.constructor.get();
+                Set<String> nestedChanges = new LinkedHashSet<>();
+                embedded.apply(target2, nested, path + ".", nestedChanges);
+                if (current == null && !nestedChanges.isEmpty()) {
+                    setter.accept(target, target2);
+                }
+                changed.addAll(nestedChanges);
+                return;
+            }
+            Object converted = convert(value, path);
+            if (!Objects.equals(current, converted)) {
+                setter.accept(target, converted);
+                changed.add(path);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object convert(Object value, String path) {
+            if (type == String.class) {
+                if (value instanceof String text) {
+                    if (!nullable && text.isBlank()) {
+                        throw new IllegalArgumentException("El campo " + path + " es obligatorio");
+                    }
+                    return text;
+                }
+            } else if (type.isEnum()) {
+                if (value instanceof String text) {
+                    for (Object constant : type.getEnumConstants()) {
+                        if (((Enum) constant).name().equalsIgnoreCase(text.trim())) {
+                            return constant;
+                        }
+                    }
+                    throw new IllegalArgumentException("Valor no válido para " + path + ": " + text);
+                }
+            } else if (type == Long.class || type == long.class) {
+                if (value instanceof Number number) {
+                    return number.longValue();
+                }
+            } else if (type == Integer.class || type == int.class) {
+                if (value instanceof Number number) {
+                    return number.intValue();
+                }
+            } else if (type == Boolean.class || type == boolean.class) {
+                if (value instanceof Boolean flag) {
+                    return flag;
+                }
+            }
+            throw new IllegalArgumentException("Tipo no válido para " + path + ": se esperaba " + type.getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package edu.EAM.usuarios.Usuarios.patch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Agrupa los patches que llegan al mismo id dentro de una ventana corta y los
+ * escribe en una sola transacción: una carga, los patches aplicados en orden
+ * de llegada y un único UPDATE.
+ *
+ * Por id hay como mucho una escritura en curso; lo que llega mientras tanto
+ * forma el grupo siguiente, así que el orden por id se mantiene. Si un grupo
+ * falla, cada patch se repite en su propia transacción para que el error
+ * quede solo en el que lo causa.
+ *
+ * {@link #pending} devuelve lo que aún no se confirmó, para que las lecturas
+ * por id de esta instancia vean sus propias escrituras (modo write-behind).
+ */
+public final class PatchCoalescer<K, T> {
+
+    // Escribe los patches de un id en una transacción; null si el id no existe
+    @FunctionalInterface
+    public interface Writer<K, T> {
+        T write(K key, List<Map<String, Object>> patches);
+    }
+
+    // Patches de un id; solo se modifica dentro de groups.compute
+    private static final class Group<T> {
+        List<Map<String, Object>> open = new ArrayList<>();
+        List<CompletableFuture<T>> waiters = new ArrayList<>();
+        List<Map<String, Object>> writing = List.of();
+        boolean scheduled;
+    }
+
+    private record Batch<T>(List<Map<String, Object>> patches, List<CompletableFuture<T>> waiters) {
+    }
+
+    private final ConcurrentHashMap<K, Group<T>> groups = new ConcurrentHashMap<>();
+    private final Writer<K, T> writer;
+    private final long windowMs;
+    private final ScheduledExecutorService flusher;
+    private final Counter requests;
+    private final Counter writes;
+    private final Counter failures;
+    private final DistributionSummary batchSize;
+
+    public PatchCoalescer(String entity, long windowMs, int threads, Writer<K, T> writer, MeterRegistry registry) {
+        this.writer = writer;
+        this.windowMs = windowMs;
+        AtomicInteger counter = new AtomicInteger();
+        // Los hilos se crean con el primer patch: sin agrupar no cuesta nada
+        this.flusher = Executors.newScheduledThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, entity + "-patch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.requests = Counter.builder("patch.coalesce.requests").tag("entity", entity).register(registry);
+        this.writes = Counter.builder("patch.coalesce.writes").tag("entity", entity).register(registry);
+        this.failures = Counter.builder("patch.coalesce.failures").tag("entity", entity).register(registry);
+        this.batchSize = DistributionSummary.builder("patch.coalesce.batch.size")
+                .description("Patches escritos en cada UPDATE")
+                .tag("entity", entity)
+                .register(registry);
+        Gauge.builder("patch.coalesce.ratio", this, c -> c.requests.count() / Math.max(1, c.writes.count()))
+                .description("Patches recibidos por cada escritura")
+                .tag("entity", entity)
+                .register(registry);
+        Gauge.builder("patch.coalesce.pending", groups, Map::size).tag("entity", entity).register(registry);
+    }
+
+    // Se completa con el resultado de la escritura que incluyó este patch
+    public CompletableFuture<T> submit(K key, Map<String, Object> patch) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicBoolean schedule = new AtomicBoolean();
+        groups.compute(key, (k, group) -> {
+            Group<T> current = group != null ? group : new Group<>();
+            current.open.add(patch);
+            current.waiters.add(result);
+            if (!current.scheduled && current.writing.isEmpty()) {
+                current.scheduled = true;
+                schedule.set(true);
+            }
+            return current;
+        });
+        requests.increment();
+        if (schedule.get()) {
+            try {
+                flusher.schedule(() -> flush(key), windowMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flush(key);  // Apagando: se escribe ya
+            }
+        }
+        return result;
+    }
+
+    // Espera a que el patch quede confirmado (modo estricto)
+    public T submitAndWait(K key, Map<String, Object> patch, long timeoutMs) {
+        CompletableFuture<T> result = submit(key, patch);
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("El patch de " + key + " no se confirmó en " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el patch de " + key);
+        }
+    }
+
+    /**
+     * Patches del id aún sin confirmar, en orden, para aplicarlos sobre la
+     * entidad leída. Mientras estén pendientes sus campos se imponen a lo
+     * leído, aunque otra escritura (update, cambio de estado u otra réplica)
+     * haya cambiado después el mismo campo; eso se corrige cuando el grupo se
+     * confirma. Un grupo sale de aquí antes de avisar a quienes lo esperan.
+     * Se consultan antes de leer la entidad: si el grupo se confirma entre
+     * medio, aplicar otra vez un merge patch ya escrito no cambia nada.
+     */
+    public List<Map<String, Object>> pending(K key) {
+        if (!groups.containsKey(key)) {
+            return List.of();
+        }
+        List<Map<String, Object>> pending = new ArrayList<>();
+        groups.computeIfPresent(key, (k, group) -> {
+            pending.addAll(group.writing);
+            pending.addAll(group.open);
+            return group;
+        });
+        return pending;
+    }
+
+    private void flush(K key) {
+        AtomicReference<Batch<T>> taken = new AtomicReference<>();
+        groups.computeIfPresent(key, (k, group) -> {
+            taken.set(new Batch<>(group.open, group.waiters));
+            group.writing = group.open;
+            group.open = new ArrayList<>();
+            group.waiters = new ArrayList<>();
+            group.scheduled = false;
+            return group;
+        });
+        Batch<T> batch = taken.get();
+        if (batch == null || batch.patches().isEmpty()) {
+            return;
+        }
+        Runnable complete = write(key, batch);
+
+        AtomicBoolean again = new AtomicBoolean();
+        groups.computeIfPresent(key, (k, group) -> {
+            group.writing = List.of();
+            if (group.open.isEmpty()) {
+                return null;
+            }
+            group.scheduled = true;
+            again.set(true);
+            return group;
+        });
+        // Quien espera este grupo ya no lo ve en pending() al despertar
+        complete.run();
+        if (again.get()) {
+            // Llegaron durante la escritura y ya esperaron: sin otra ventana
+            try {
+                flusher.execute(() -> flush(key));
+            } catch (RejectedExecutionException e) {
+                flush(key);
+            }
+        }
+    }
+
+    // Escribe el grupo y devuelve cómo completar a quienes lo esperan
+    private Runnable write(K key, Batch<T> batch) {
+        try {
+            T result = writer.write(key, batch.patches());
+            writes.increment();
+            batchSize.record(batch.patches().size());
+            return () -> batch.waiters().forEach(waiter -> waiter.complete(result));
+        } catch (RuntimeException e) {
+            if (batch.patches().size() == 1) {
+                failures.increment();
+                return () -> batch.waiters().get(0).completeExceptionally(e);
+            }
+            List<Runnable> outcomes = new ArrayList<>();
+            for (int i = 0; i < batch.patches().size(); i++) {
+                CompletableFuture<T> waiter = batch.waiters().get(i);
+                try {
+                    T result = writer.write(key, List.of(batch.patches().get(i)));
+                    writes.increment();
+                    batchSize.record(1);
+                    outcomes.add(() -> waiter.complete(result));
+                } catch (RuntimeException itemError) {
+                    failures.increment();
+                    outcomes.add(() -> waiter.completeExceptionally(itemError));
+                }
+            }
+            return () -> outcomes.forEach(Runnable::run);
+        }
+    }
+
+    // Escribe lo pendiente antes de apagar (las ventanas programadas se ejecutan igual)
+    public void shutdown(long timeoutMs) {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
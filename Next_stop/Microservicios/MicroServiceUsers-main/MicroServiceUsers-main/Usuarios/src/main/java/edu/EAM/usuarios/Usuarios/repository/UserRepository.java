@@ -1,7 +1,11 @@
 package edu.EAM.usuarios.Usuarios.repository;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import edu.EAM.usuarios.Usuarios.model.User;
@@ -11,7 +15,16 @@ public interface UserRepository extends JpaRepository<User, String> {  // <Entid
     
     // Método personalizado para buscar por nombre (contiene)
     List<User> findByNameContainingIgnoreCase(String name);
+
+    // Versiones paginadas (sin consulta COUNT) para mezclar páginas de varias bases
+    List<User> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    List<User> findAllBy(Pageable pageable);
     
+    // Ids que existen de entre los recibidos (una sola consulta IN)
+    @Query("select u.id from User u where u.id in :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
     // Otros métodos CRUD ya están en JpaRepository (save, findById, findAll, deleteById, etc.)
 
 }
\ No newline at end of file
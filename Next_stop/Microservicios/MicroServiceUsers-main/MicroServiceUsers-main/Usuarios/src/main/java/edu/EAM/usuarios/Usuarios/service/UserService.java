@@ -1,115 +1,345 @@
 package edu.EAM.usuarios.Usuarios.service;
 
+import edu.EAM.usuarios.Usuarios.cache.SingleFlight;
+import edu.EAM.usuarios.Usuarios.datasource.ReadYourWrites;
 import edu.EAM.usuarios.Usuarios.model.Address;
+import edu.EAM.usuarios.Usuarios.model.BulkResult;
 import edu.EAM.usuarios.Usuarios.model.User;
+import edu.EAM.usuarios.Usuarios.patch.MergePatch;
+import edu.EAM.usuarios.Usuarios.patch.PatchCoalesceProperties;
+import edu.EAM.usuarios.Usuarios.patch.PatchCoalescer;
+import edu.EAM.usuarios.Usuarios.sharding.ShardExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import edu.EAM.usuarios.Usuarios.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
+/**
+ * Las transacciones son programáticas (ShardExecutor) en lugar de
+ * @Transactional: con sharding, la base se elige antes de abrir la
+ * transacción según el id. Sin sharding se comporta igual que antes.
+ */
 @Service
+@EnableConfigurationProperties(PatchCoalesceProperties.class)
 public class UserService {
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
+    // Orden estable para paginar: el id ordena igual en MariaDB que en Java
+    private static final Sort PAGE_ORDER = Sort.by("id");
+
     private final UserRepository repository;
+    // Lecturas idénticas concurrentes comparten una sola consulta
+    private final SingleFlight<String, Object> reads;
+    // Transacciones en la base que corresponde a cada id (una sola sin sharding)
+    private final ShardExecutor shards;
+    // Operaciones masivas: cada bloque de bulk.chunk-size elementos va en su propia transacción
+    private final int chunkSize;
+    // PATCH al mismo id dentro de la ventana: una sola escritura (patch.coalesce.*)
+    private final PatchCoalesceProperties coalesce;
+    private final PatchCoalescer<String, User> patches;
 
     @Autowired
-    public UserService(UserRepository repository) {
+    public UserService(UserRepository repository, MeterRegistry registry, ShardExecutor shards,
+                       @Value("${bulk.chunk-size:500}") int chunkSize, PatchCoalesceProperties coalesce) {
         this.repository = repository;
+        this.reads = new SingleFlight<>("users", registry);
+        this.shards = shards;
+        this.chunkSize = chunkSize;
+        this.coalesce = coalesce;
+        this.patches = new PatchCoalescer<>("users", coalesce.getWindowMs(), coalesce.getFlushThreads(),
+                (id, list) -> shards.forKey(id, false, status -> applyPatches(id, list)), registry);
         // Elimina initSampleData() o muévelo a un script SQL si necesitas datos iniciales
     }
 
     public User save(User user) {
-        // JPA maneja la generación de ID automáticamente si es null
-        return repository.save(user);
+        // JPA genera el ID si es null; con sharding se asigna aquí para saber a qué base va
+        if (user.getId() == null && shards.isSharded()) {
+            user.setId(UUID.randomUUID().toString());
+        }
+        return shards.forKey(user.getId(), false, status -> {
+            User saved = repository.save(user);
+            invalidate(saved.getId());
+            return saved;
+        });
     }
 
+    // Solo lectura (puede ir a una réplica): el resultado puede compartirse entre peticiones concurrentes
     public User findById(String id) {
-        Optional<User> user = repository.findById(id);
-        return user.orElse(null);
+        if (writeBehind()) {
+            List<Map<String, Object>> pending = patches.pending(id);  // Antes de leer (ver PatchCoalescer.pending)
+            return withPending(load(id), pending);
+        }
+        return load(id);
     }
 
+    private User load(String id) {
+        return (User) reads.execute("id:" + id,
+                () -> shards.forKey(id, true, status -> repository.findById(id).orElse(null)));
+    }
+
+    // Con sharding consulta todas las bases en paralelo. Las listas se comparten
+    // entre peticiones (reads), así que se devuelven inmodificables
+    @SuppressWarnings("unchecked")
     public List<User> findAll() {
-        return repository.findAll();
+        return (List<User>) reads.execute("all", () -> List.copyOf(shards.gather(true, status -> repository.findAll())));
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<User> findAll(int page, int size) {
+        return (List<User>) reads.execute("all:" + page + ":" + size, () -> List.copyOf(page(page, size, repository::findAllBy)));
     }
 
+    @SuppressWarnings("unchecked")
     public List<User> findByName(String name) {
-        return repository.findByNameContainingIgnoreCase(name);
+        return (List<User>) reads.execute("name:" + name,
+                () -> List.copyOf(shards.gather(true, status -> repository.findByNameContainingIgnoreCase(name))));
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<User> findByName(String name, int page, int size) {
+        return (List<User>) reads.execute("name:" + name + ":" + page + ":" + size,
+                () -> List.copyOf(page(page, size, pageable -> repository.findByNameContainingIgnoreCase(name, pageable))));
     }
 
     public User update(User user) {
         // save() en JPA hace upsert (inserta si no existe, actualiza si sí)
-        return repository.save(user);
+        return shards.forKey(user.getId(), false, status -> {
+            User saved = repository.save(user);
+            invalidate(saved.getId());
+            return saved;
+        });
     }
 
+    // JSON Merge Patch (RFC 7396): solo se actualizan las columnas que cambian
     public User patch(String id, Map<String, Object> updates) {
-        Optional<User> optionalUser = repository.findById(id);
-        if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
-            updates.forEach((key, value) -> {
-                switch (key) {
-                    case "name" -> {
-                        String newName = (String) value;
-                        if (newName != null && !newName.trim().isEmpty()) {
-                            user.setName(newName);
-                        }
-                    }
-                    case "gender" -> {
-                        String newGender = (String) value;
-                        if (newGender != null && !newGender.trim().isEmpty()) {
-                            user.setGender(newGender);
-                        }
-                    }
-                    case "email" -> {
-                        String newEmail = (String) value;
-                        if (newEmail != null && !newEmail.trim().isEmpty()) {
-                            user.setEmail(newEmail);
-                        }
-                    }
-                    case "phoneNumber" -> {
-                        String newPhone = (String) value;
-                        if (newPhone != null && !newPhone.trim().isEmpty()) {
-                            user.setPhoneNumber(newPhone);
-                        }
-                    }
-                    case "address" -> {
-                        if (value instanceof Map<?, ?> addrMap) {
-                            Address current = user.getAddress();
-                            if (current == null) {
-                                current = new Address();
-                                user.setAddress(current);
-                            }
-                            String street = (String) addrMap.get("street");
-                            if (street != null && !street.trim().isEmpty()) {
-                                current.setStreet(street);
-                            }
-                            String number = (String) addrMap.get("number");
-                            if (number != null && !number.trim().isEmpty()) {
-                                current.setNumber(number);
-                            }
-                            String neighborhood = (String) addrMap.get("neighborhood");
-                            if (neighborhood != null && !neighborhood.trim().isEmpty()) {
-                                current.setNeighborhood(neighborhood);
-                            }
-                            String city = (String) addrMap.get("city");
-                            if (city != null && !city.trim().isEmpty()) {
-                                current.setCity(city);
-                            }
-                            String postalCode = (String) addrMap.get("postalCode");
-                            if (postalCode != null && !postalCode.trim().isEmpty()) {
-                                current.setPostalCode(postalCode);
-                            }
+        if (!coalesce.isEnabled()) {
+            return shards.forKey(id, false, status -> applyPatches(id, List.of(updates)));
+        }
+        // Campos y tipos se validan ya: el error es de esta petición, no del grupo
+        MergePatch.of(User.class).apply(new User(), updates);
+        if (coalesce.isStrict()) {
+            return patches.submitAndWait(id, updates, coalesce.getTimeoutMs());
+        }
+        ReadYourWrites.markWrite();  // La respuesta se arma con lo que hay en el primario
+        if (load(id) == null) {
+            return null;
+        }
+        patches.submit(id, updates).exceptionally(e -> {
+            log.warn("Patch del usuario {} descartado: {}", id, e.getMessage());
+            return null;
+        });
+        return findById(id);
+    }
+
+    // Una carga, los patches en orden y un único UPDATE al confirmar
+    private User applyPatches(String id, List<Map<String, Object>> updates) {
+        User user = repository.findById(id).orElse(null);
+        if (user == null) {
+            return null;
+        }
+        Set<String> changed = new HashSet<>();
+        for (Map<String, Object> patch : updates) {
+            changed.addAll(MergePatch.of(User.class).apply(user, patch));
+        }
+        if (changed.isEmpty()) {
+            return user;
+        }
+        invalidate(id);
+        return repository.save(user);  // Guarda los cambios
+    }
+
+    public void deleteById(String id) {
+        shards.forKey(id, false, status -> {
+            repository.deleteById(id);
+            invalidate(id);
+            return null;
+        });
+    }
+
+    // Multi-get: una consulta IN por bloque de ids (y por base); los que no existen se omiten
+    public List<User> findAllById(List<String> ids) {
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        Map<String, User> found = new HashMap<>();
+        shards.byShard(distinct, id -> id, true, group -> {
+            List<User> users = new ArrayList<>();
+            for (int start = 0; start < group.size(); start += chunkSize) {
+                users.addAll(repository.findAllById(group.subList(start, Math.min(start + chunkSize, group.size()))));
+            }
+            return users;
+        }).forEach(user -> found.put(user.getId(), user));
+        return distinct.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Alta/actualización masiva (upsert). Con un id existente se reemplaza el
+     * usuario (como PUT); sin id o con uno que no existe se crea, conservando el
+     * id recibido (p. ej. al importar de otro sistema). Los INSERT/UPDATE de cada
+     * bloque salen en lotes JDBC (hibernate.jdbc.batch_size).
+     */
+    public List<BulkResult> saveAll(List<User> users) {
+        // Con sharding los nuevos reciben aquí su id para saber a qué base van
+        List<String> ids = users.stream()
+                .map(user -> user.getId() == null && shards.isSharded() ? UUID.randomUUID().toString() : user.getId())
+                .toList();
+        BulkResult[] results = new BulkResult[users.size()];
+        for (int start = 0; start < users.size(); start += chunkSize) {
+            List<Integer> chunk = IntStream.range(start, Math.min(start + chunkSize, users.size())).boxed().toList();
+            shards.groupByShard(chunk, ids::get).forEach((shard, items) -> saveChunk(shard, users, ids, items, results));
+        }
+        return Arrays.asList(results);
+    }
+
+    public List<BulkResult> deleteAllById(List<String> ids) {
+        BulkResult[] results = new BulkResult[ids.size()];
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            List<Integer> chunk = IntStream.range(start, Math.min(start + chunkSize, ids.size())).boxed().toList();
+            shards.groupByShard(chunk, ids::get).forEach((shard, items) -> {
+                List<String> group = items.stream().map(ids::get).toList();
+                Set<String> deleted;
+                try {
+                    deleted = shards.inShard(shard, false, status -> {
+                        Set<String> existing = new HashSet<>(repository.findExistingIds(group));
+                        if (!existing.isEmpty()) {
+                            repository.deleteAllByIdInBatch(existing);  // Un solo DELETE ... IN
+                            reads.invalidateAfterCommit(k -> true);
                         }
-                    }
+                        return existing;
+                    });
+                } catch (RuntimeException e) {
+                    items.forEach(index -> results[index] = BulkResult.error(index, ids.get(index), message(e)));
+                    return;
+                }
+                for (Integer index : items) {
+                    results[index] = BulkResult.of(index, ids.get(index),
+                            deleted.contains(ids.get(index)) ? BulkResult.Status.eliminado : BulkResult.Status.no_encontrado);
                 }
             });
-            return repository.save(user);  // Guarda los cambios
         }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Página ordenada por id. Con sharding cada base devuelve sus primeros
+     * (page + 1) * size y la mezcla da la página exacta; las páginas profundas
+     * cuestan más.
+     */
+    private List<User> page(int page, int size, Function<Pageable, List<User>> query) {
+        if (!shards.isSharded()) {
+            return shards.inShard(0, true, status -> query.apply(PageRequest.of(page, size, PAGE_ORDER)));
+        }
+        int top = Math.multiplyExact(page + 1, size);
+        return shards.gather(true, status -> query.apply(PageRequest.of(0, top, PAGE_ORDER))).stream()
+                .sorted(Comparator.comparing(User::getId))
+                .skip((long) page * size)
+                .limit(size)
+                .toList();
+    }
+
+    // Si el bloque falla (p. ej. un dato inválido), se repite elemento a elemento
+    // para que el error quede solo en los que lo causan
+    private void saveChunk(int shard, List<User> users, List<String> ids, List<Integer> items, BulkResult[] results) {
+        try {
+            shards.inShard(shard, false, status -> upsert(users, ids, items, results));
+        } catch (RuntimeException e) {
+            for (Integer index : items) {
+                try {
+                    shards.inShard(shard, false, status -> upsert(users, ids, List.of(index), results));
+                } catch (RuntimeException itemError) {
+                    results[index] = BulkResult.error(index, users.get(index).getId(), message(itemError));
+                }
+            }
+        }
+    }
+
+    private Void upsert(List<User> users, List<String> ids, List<Integer> items, BulkResult[] results) {
+        List<String> requested = items.stream().map(users::get).map(User::getId).filter(Objects::nonNull).toList();
+        Map<String, User> existing = new HashMap<>();
+        repository.findAllById(requested).forEach(user -> existing.put(user.getId(), user));
+        for (Integer index : items) {
+            User incoming = users.get(index);
+            if (incoming.getId() != null && existing.containsKey(incoming.getId())) {
+                copyFields(incoming, existing.get(incoming.getId()));
+                results[index] = BulkResult.of(index, incoming.getId(), BulkResult.Status.actualizado);
+            } else {
+                // Copia nueva: si la transacción se revierte, el elemento recibido sigue sin id
+                User copy = copyFields(incoming, new User());
+                copy.setId(ids.get(index));  // null sin id ni sharding: lo genera Hibernate
+                User created = repository.save(copy);
+                existing.put(created.getId(), created);  // Un id repetido en la petición actualiza al recién creado
+                results[index] = BulkResult.of(index, created.getId(), BulkResult.Status.creado);
+            }
+        }
+        repository.flush();  // Los errores de datos saltan aquí, dentro del bloque
+        reads.invalidateAfterCommit(k -> true);
         return null;
     }
 
-    public void deleteById(String id) {
-        repository.deleteById(id);
+    private static User copyFields(User from, User to) {
+        to.setName(from.getName());
+        to.setGender(from.getGender());
+        to.setEmail(from.getEmail());
+        to.setPhoneNumber(from.getPhoneNumber());
+        to.setAddress(from.getAddress());
+        return to;
+    }
+
+    private boolean writeBehind() {
+        return coalesce.isEnabled() && !coalesce.isStrict();
+    }
+
+    // Lectura de lo propio escrito en write-behind: los patches sin confirmar se aplican
+    // a una copia (la entidad puede estar compartida entre lecturas concurrentes)
+    private static User withPending(User user, List<Map<String, Object>> pending) {
+        if (user == null || pending.isEmpty()) {
+            return user;
+        }
+        User copy = copyFields(user, new User());
+        copy.setId(user.getId());
+        Address address = user.getAddress();
+        if (address != null) {
+            copy.setAddress(new Address(address.getStreet(), address.getNumber(), address.getNeighborhood(),
+                    address.getCity(), address.getPostalCode()));
+        }
+        pending.forEach(patch -> MergePatch.of(User.class).apply(copy, patch));
+        return copy;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        patches.shutdown(coalesce.getTimeoutMs());
+    }
+
+    private static String message(RuntimeException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+
+    // Tras el commit, las nuevas lecturas de ese usuario y de los listados no se unen
+    // a consultas que empezaron antes del cambio
+    private void invalidate(String id) {
+        String key = "id:" + id;
+        reads.invalidateAfterCommit(k -> k.equals(key) || !k.startsWith("id:"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package edu.EAM.usuarios.Usuarios.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Herramienta para añadir bases: con sharding.reshard.from-count=N mueve las
+ * filas de las primeras N bases a la base que les corresponde con todas las
+ * configuradas, y cierra la aplicación.
+ *
+ * Uso (con la base nueva ya añadida a sharding.shards):
+ *   java -jar usuarios.jar --spring.main.web-application-type=none --sharding.reshard.from-count=2
+ *
+ * Se ejecuta con las escrituras detenidas (el servicio no debe estar atendiendo).
+ * Por cada lote copia las filas en la base destino, confirma, y solo después
+ * las borra del origen; si se interrumpe, basta con volver a lanzarla.
+ */
+@Component
+@ConditionalOnExpression("${sharding.reshard.from-count:0} > 0")
+public class ReshardTool implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ReshardTool.class);
+    private static final String TABLE = "users";
+
+    private final ObjectProvider<ShardRoutingDataSource> routing;
+    private final ShardingProperties properties;
+    private final ApplicationContext context;
+
+    public ReshardTool(ObjectProvider<ShardRoutingDataSource> routing, ShardingProperties properties,
+                       ApplicationContext context) {
+        this.routing = routing;
+        this.properties = properties;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        ShardRoutingDataSource shards = routing.getIfAvailable();
+        if (shards == null) {
+            throw new IllegalStateException("El reparto necesita sharding.enabled=true");
+        }
+        int moved = reshard(shards.getShards(), properties.getReshard().getFromCount(),
+                properties.getReshard().getBatchSize());
+        log.info("Reparto terminado: {} usuarios movidos entre {} bases", moved, shards.getShards().size());
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    /**
+     * Recorre cada base de origen por id y mueve las filas cuyo destino cambia
+     * con shards.size() bases. Devuelve cuántas filas se movieron.
+     */
+    public static int reshard(List<DataSource> shards, int fromCount, int batchSize) throws SQLException {
+        if (fromCount >= shards.size()) {
+            throw new IllegalArgumentException("Hay " + shards.size() + " bases configuradas; añade la nueva antes de repartir");
+        }
+        int moved = 0;
+        for (int source = 0; source < fromCount; source++) {
+            String lastId = "";
+            while (true) {
+                List<Map<String, Object>> rows = readBatch(shards.get(source), lastId, batchSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                lastId = (String) rows.get(rows.size() - 1).get("id");
+                Map<Integer, List<Map<String, Object>>> byTarget = new HashMap<>();
+                for (Map<String, Object> row : rows) {
+                    int target = ShardHash.shardFor((String) row.get("id"), shards.size());
+                    if (target != source) {
+                        byTarget.computeIfAbsent(target, t -> new ArrayList<>()).add(row);
+                    }
+                }
+                for (Map.Entry<Integer, List<Map<String, Object>>> entry : byTarget.entrySet()) {
+                    copy(shards.get(entry.getKey()), entry.getValue());
+                    delete(shards.get(source), entry.getValue());
+                    moved += entry.getValue().size();
+                }
+                log.info("Base {}: movidos {} usuarios hasta el id {}", source, moved, lastId);
+            }
+        }
+        return moved;
+    }
+
+    private static List<Map<String, Object>> readBatch(DataSource shard, String afterId, int batchSize) throws SQLException {
+        try (Connection connection = shard.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT * FROM " + TABLE + " WHERE id > ? ORDER BY id LIMIT ?")) {
+            statement.setString(1, afterId);
+            statement.setInt(2, batchSize);
+            try (ResultSet rs = statement.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                List<Map<String, Object>> rows = new ArrayList<>();
+                while (rs.next()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        row.put(meta.getColumnLabel(i).toLowerCase(), rs.getObject(i));
+                    }
+                    rows.add(row);
+                }
+                return rows;
+            }
+        }
+    }
+
+    // Borra y vuelve a insertar: repetir un lote ya copiado no duplica filas
+    private static void copy(DataSource target, List<Map<String, Object>> rows) throws SQLException {
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String insert = "INSERT INTO " + TABLE + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", columns.stream().map(c -> "?").toList()) + ")";
+        try (Connection connection = target.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE id = ?");
+                 PreparedStatement statement = connection.prepareStatement(insert)) {
+                for (Map<String, Object> row : rows) {
+                    delete.setObject(1, row.get("id"));
+                    delete.addBatch();
+                    for (int i = 0; i < columns.size(); i++) {
+                        statement.setObject(i + 1, row.get(columns.get(i)));
+                    }
+                    statement.addBatch();
+                }
+                delete.executeBatch();
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static void delete(DataSource source, List<Map<String, Object>> rows) throws SQLException {
+        try (Connection connection = source.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE id = ?")) {
+                for (Map<String, Object> row : rows) {
+                    statement.setObject(1, row.get("id"));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+}
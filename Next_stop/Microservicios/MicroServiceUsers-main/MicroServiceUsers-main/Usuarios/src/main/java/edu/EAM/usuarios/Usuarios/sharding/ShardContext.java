@@ -0,0 +1,25 @@
+package edu.EAM.usuarios.Usuarios.sharding;
+
+/**
+ * Base a la que van las sentencias del hilo actual. Lo fija ShardExecutor
+ * antes de abrir la transacción; fuera de él se usa la base 0.
+ */
+final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    static Integer current() {
+        return CURRENT.get();
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package edu.EAM.usuarios.Usuarios.sharding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ejecuta transacciones sobre la base que corresponde. Sin sharding hay una
+ * sola base y todo se reduce a un TransactionTemplate.
+ *
+ * Una transacción nunca cruza bases: las operaciones por id van a una sola, y
+ * las que abarcan varias (listados, operaciones masivas) abren una
+ * transacción por base, en paralelo.
+ */
+@Component
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardExecutor {
+
+    private final TransactionTemplate readWrite;
+    private final TransactionTemplate readOnly;
+    private final int shardCount;
+    private final ExecutorService pool;
+
+    public ShardExecutor(PlatformTransactionManager transactionManager, ShardingProperties properties) {
+        this.readWrite = new TransactionTemplate(transactionManager);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);  // Sin sharding puede ir a una réplica
+        this.shardCount = properties.isEnabled() ? 1 + properties.getShards().size() : 1;
+        if (shardCount > 1) {
+            AtomicInteger counter = new AtomicInteger();
+            this.pool = Executors.newFixedThreadPool(Math.max(1, properties.getQueryThreads()), runnable -> {
+                Thread thread = new Thread(runnable, "shard-query-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.pool = null;
+        }
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(String id) {
+        return id == null ? 0 : ShardHash.shardFor(id, shardCount);
+    }
+
+    public <T> T forKey(String id, boolean readOnly, TransactionCallback<T> action) {
+        return inShard(shardFor(id), readOnly, action);
+    }
+
+    public <T> T inShard(int shard, boolean readOnly, TransactionCallback<T> action) {
+        if (!isSharded()) {
+            return (readOnly ? this.readOnly : readWrite).execute(action);
+        }
+        // Dentro de una transacción la conexión ya está elegida: en la misma base se une
+        // a ella; cambiar de base no tendría efecto
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            if (Integer.valueOf(shard).equals(ShardContext.current())) {
+                return (readOnly ? this.readOnly : readWrite).execute(action);
+            }
+            throw new IllegalStateException("No se puede cambiar de base dentro de una transacción");
+        }
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return (readOnly ? this.readOnly : readWrite).execute(action);
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    // La misma consulta en todas las bases; resultados concatenados en orden de base
+    public <T> List<T> gather(boolean readOnly, TransactionCallback<List<T>> action) {
+        List<Integer> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(i);
+        }
+        return parallel(shards, shard -> inShard(shard, readOnly, action));
+    }
+
+    /**
+     * Reparte las claves por base y ejecuta "action" con el grupo de cada una,
+     * en paralelo y en una transacción por base.
+     */
+    public <K, T> List<T> byShard(Collection<K> keys, Function<K, String> idOf, boolean readOnly,
+                                  Function<List<K>, List<T>> action) {
+        Map<Integer, List<K>> groups = groupByShard(keys, idOf);
+        return parallel(new ArrayList<>(groups.keySet()),
+                shard -> inShard(shard, readOnly, status -> action.apply(groups.get(shard))));
+    }
+
+    public <K> Map<Integer, List<K>> groupByShard(Collection<K> keys, Function<K, String> idOf) {
+        Map<Integer, List<K>> groups = new LinkedHashMap<>();
+        for (K key : keys) {
+            groups.computeIfAbsent(shardFor(idOf.apply(key)), shard -> new ArrayList<>()).add(key);
+        }
+        return groups;
+    }
+
+    private <T> List<T> parallel(List<Integer> shards, Function<Integer, List<T>> task) {
+        if (shards.size() <= 1 || pool == null) {
+            List<T> result = new ArrayList<>();
+            shards.forEach(shard -> result.addAll(task.apply(shard)));
+            return result;
+        }
+        List<CompletableFuture<List<T>>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> task.apply(shard), pool))
+                .toList();
+        List<T> result = new ArrayList<>();
+        try {
+            futures.forEach(future -> result.addAll(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package edu.EAM.usuarios.Usuarios.sharding;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Base que le corresponde a un id. FNV-1a de 64 bits sobre los bytes UTF-8
+ * del id (estable entre versiones de Java) y jump consistent hash (Lamping y
+ * Veach): al pasar de N a N+1 bases solo se mueve 1/(N+1) de las filas, y
+ * todas hacia la base nueva.
+ */
+public final class ShardHash {
+
+    private ShardHash() {
+    }
+
+    public static int shardFor(String id, int shards) {
+        if (shards <= 1) {
+            return 0;
+        }
+        return jump(fnv1a(id), shards);
+    }
+
+    static long fnv1a(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static int jump(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+}
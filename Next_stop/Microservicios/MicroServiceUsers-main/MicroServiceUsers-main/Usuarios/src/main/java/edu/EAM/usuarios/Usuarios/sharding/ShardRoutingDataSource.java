@@ -0,0 +1,58 @@
+package edu.EAM.usuarios.Usuarios.sharding;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Envía cada conexión a la base que indica {@link ShardContext}. Va detrás de
+ * un LazyConnectionDataSourceProxy, así la base se elige con la primera
+ * sentencia de la transacción y no al abrirla.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRoutingDataSource.class);
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard != null ? shard : 0;
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    // La base 0 es el pool de spring.datasource; las demás se crean aquí y se cierran aquí
+    @Override
+    public void close() {
+        for (DataSource shard : shards.subList(1, shards.size())) {
+            if (shard instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("No se pudo cerrar el pool de la base: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
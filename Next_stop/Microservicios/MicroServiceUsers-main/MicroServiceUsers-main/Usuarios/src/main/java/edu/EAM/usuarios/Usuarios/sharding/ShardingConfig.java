@@ -0,0 +1,72 @@
+package edu.EAM.usuarios.Usuarios.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Sharding de users; solo se activa con sharding.enabled=true. No se combina
+ * con las réplicas de lectura (routing.enabled): las dos definen el
+ * DataSource principal.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    // Base 0: las mismas propiedades spring.datasource.* y spring.datasource.hikari.*
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource shardZeroDataSource(DataSourceProperties properties,
+                                                @Value("${routing.enabled:false}") boolean routingEnabled) {
+        if (routingEnabled) {
+            throw new IllegalStateException("sharding.enabled y routing.enabled no se pueden activar a la vez");
+        }
+        HikariDataSource shard = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        shard.setPoolName("shard-0");
+        return shard;
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource shardZeroDataSource,
+                                                         DataSourceProperties properties,
+                                                         ShardingProperties sharding) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(shardZeroDataSource);
+        for (int i = 0; i < sharding.getShards().size(); i++) {
+            ShardingProperties.Shard config = sharding.getShards().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + (i + 1));
+            pool.setJdbcUrl(config.getUrl());
+            pool.setUsername(config.getUsername() != null ? config.getUsername() : properties.getUsername());
+            pool.setPassword(config.getPassword() != null ? config.getPassword() : properties.getPassword());
+            pool.setDriverClassName(properties.determineDriverClassName());
+            pool.setMaximumPoolSize(config.getMaximumPoolSize());
+            shards.add(pool);
+        }
+        // La tabla debe existir en todas las bases, también en las recién añadidas
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("sharding/users-schema.sql"));
+        shards.forEach(shard -> DatabasePopulatorUtils.execute(schema, shard));
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+}
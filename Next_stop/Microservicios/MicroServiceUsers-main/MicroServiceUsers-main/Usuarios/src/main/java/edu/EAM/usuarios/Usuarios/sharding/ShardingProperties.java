@@ -0,0 +1,49 @@
+package edu.EAM.usuarios.Usuarios.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Reparto de la tabla users entre varias bases (propiedades sharding.*). La
+ * base 0 es spring.datasource.*; "shards" lista las demás, en orden.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    // Hilos para consultar todas las bases en paralelo (findAll, búsqueda por nombre)
+    private int queryThreads = 8;
+
+    private Reshard reshard = new Reshard();
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+
+    /**
+     * Modo herramienta: con fromCount > 0 el servicio mueve las filas que
+     * estaban repartidas en las primeras fromCount bases al reparto con todas
+     * las bases configuradas, y termina.
+     */
+    @Getter
+    @Setter
+    public static class Reshard {
+        private int fromCount = 0;
+        private int batchSize = 500;
+    }
+}
@@ -0,0 +1,229 @@
+package edu.EAM.usuarios.Usuarios.warmup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import edu.EAM.usuarios.Usuarios.datasource.ReadYourWrites;
+import edu.EAM.usuarios.Usuarios.model.User;
+import edu.EAM.usuarios.Usuarios.patch.PatchCoalesceProperties;
+import edu.EAM.usuarios.Usuarios.repository.UserRepository;
+import edu.EAM.usuarios.Usuarios.service.UserService;
+import edu.EAM.usuarios.Usuarios.sharding.ShardExecutor;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Calentamiento antes de recibir tráfico (warmup.enabled=true).
+ *
+ * Corre en el último listener de ApplicationReadyEvent: Spring Boot publica
+ * ReadinessState.ACCEPTING_TRAFFIC después de los listeners, así que
+ * /actuator/health/readiness responde OUT_OF_SERVICE hasta que termina.
+ *
+ * Cada ronda lanza lecturas HTTP contra el propio servidor (JSON y CBOR,
+ * pasando por filtros, conversores, caché y pool). Entre rondas, fuera de lo
+ * medido, un PATCH por UserService que no deja cambios (en la base que
+ * corresponde al id si hay sharding), cada vez sobre otro de los ids de
+ * muestra para no hacer cola en el bloqueo de una misma fila. Termina cuando
+ * el p90 se estabiliza (LatencyConvergence) o se agota warmup.max-seconds;
+ * un fallo no impide que el servicio quede listo.
+ */
+@Component
+@EnableConfigurationProperties(WarmupProperties.class)
+public class Warmup {
+
+    // Header de las peticiones sintéticas; el limitador no las cuenta
+    public static final String HEADER = "X-Warmup";
+
+    private static final Logger log = LoggerFactory.getLogger(Warmup.class);
+
+    // true si la respuesta cuenta para la latencia (2xx o el 404 esperado)
+    private interface Call {
+        boolean run() throws Exception;
+    }
+
+    private final WarmupProperties properties;
+    private final UserService service;
+    private final UserRepository repository;
+    private final ShardExecutor shards;
+    private final PatchCoalesceProperties coalesce;
+    private final String token = UUID.randomUUID().toString();
+    private volatile boolean running;
+
+    public Warmup(WarmupProperties properties, UserService service, UserRepository repository,
+                  ShardExecutor shards, PatchCoalesceProperties coalesce) {
+        this.properties = properties;
+        this.service = service;
+        this.repository = repository;
+        this.shards = shards;
+        this.coalesce = coalesce;
+    }
+
+    // Solo mientras dura el calentamiento y con el token de este arranque
+    public boolean isWarmupRequest(HttpServletRequest request) {
+        return running && token.equals(request.getHeader(HEADER));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onReady(ApplicationReadyEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!(event.getApplicationContext() instanceof WebServerApplicationContext web) || web.getWebServer().getPort() <= 0) {
+            log.info("Calentamiento omitido: no hay servidor web");
+            return;
+        }
+        try {
+            run(web.getWebServer().getPort());
+        } catch (RuntimeException e) {
+            log.warn("Calentamiento interrumpido: {}", e.getMessage());
+        }
+    }
+
+    private void run(int port) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(properties.getMaxSeconds());
+        List<String> ids = service.findAll(0, properties.getSampleIds()).stream().map(User::getId).toList();
+        LatencyConvergence convergence = new LatencyConvergence(properties.getStableRounds(), properties.getTolerancePercent());
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, properties.getConcurrency()));
+        running = true;
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            List<Call> calls = scenario(client, "http://localhost:" + port, ids);
+            int writes = 0;
+            while (!convergence.isStable() && System.nanoTime() < deadline) {
+                long[] latencies = round(pool, calls, deadline);
+                if (!ids.isEmpty()) {
+                    rolledBackPatch(ids.get(writes++ % ids.size()));
+                }
+                if (latencies.length == 0) {
+                    break;
+                }
+                convergence.addRound(latencies[(int) Math.ceil(latencies.length * 0.9) - 1]);
+            }
+        } finally {
+            running = false;
+            pool.shutdownNow();
+        }
+        log.info("Calentamiento {} en {} ms: {} rondas, p90 {} ms -> {} ms",
+                convergence.isStable() ? "estable" : "detenido por tiempo",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), convergence.rounds(),
+                String.format("%.2f", convergence.firstP90() / 1e6), String.format("%.2f", convergence.lastP90() / 1e6));
+    }
+
+    // Las lecturas más usadas de UserController
+    private List<Call> scenario(HttpClient client, String base, List<String> ids) {
+        List<Call> calls = new ArrayList<>();
+        calls.add(get(client, base + "/api/users?page=0&size=20", "application/json"));
+        calls.add(get(client, base + "/api/users/search?name=a&page=0&size=20", "application/json"));
+        calls.add(get(client, base + "/api/users/0", "application/json"));  // Camino del 404
+        for (String id : ids) {
+            calls.add(get(client, base + "/api/users/" + id, "application/json"));
+            calls.add(get(client, base + "/api/users/" + id, "application/cbor"));
+        }
+        return calls;
+    }
+
+    private Call get(HttpClient client, String url, String accept) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Accept", accept)
+                .header(HEADER, token)
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        return () -> {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status / 100 == 2 || status == 404;
+        };
+    }
+
+    // El camino de un PATCH (UserService.patch: MergePatch, dirty checking, UPDATE) sin dejar cambios
+    private void rolledBackPatch(String id) {
+        try {
+            if (coalesce.isEnabled()) {
+                // El grupo se confirma en su propia transacción: con el valor actual recorre
+                // validación, agrupación y carga, y el dirty checking no emite UPDATE
+                User user = service.findById(id);
+                if (user != null) {
+                    service.patch(id, Collections.singletonMap("name", user.getName()));
+                }
+                return;
+            }
+            // patch() se une a esta transacción (misma base): el UPDATE sale con el flush y se deshace
+            shards.forKey(id, false, status -> {
+                status.setRollbackOnly();
+                service.patch(id, Map.of("name", "warmup-" + UUID.randomUUID()));
+                repository.flush();
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.debug("Escritura de calentamiento fallida: {}", e.getMessage());
+        } finally {
+            ReadYourWrites.clear();  // El hilo de arranque no sigue leyendo del primario
+        }
+    }
+
+    // Latencias ordenadas de las llamadas que terminaron bien; un 429 o un 5xx
+    // no cuenta, así una ronda de errores rápidos no pasa por estable
+    private long[] round(ExecutorService pool, List<Call> calls, long deadline) {
+        AtomicInteger next = new AtomicInteger();
+        List<Future<long[]>> workers = new ArrayList<>();
+        int perWorker = properties.getRoundRequests() / Math.max(1, properties.getConcurrency());
+        for (int w = 0; w < Math.max(1, properties.getConcurrency()); w++) {
+            workers.add(pool.submit(() -> {
+                long[] latencies = new long[perWorker];
+                int done = 0;
+                for (int i = 0; i < perWorker && System.nanoTime() < deadline; i++) {
+                    Call call = calls.get(Math.floorMod(next.getAndIncrement(), calls.size()));
+                    long begin = System.nanoTime();
+                    try {
+                        if (call.run()) {
+                            latencies[done++] = System.nanoTime() - begin;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    } catch (Exception e) {
+                        log.debug("Llamada de calentamiento fallida: {}", e.getMessage());
+                    }
+                }
+                return Arrays.copyOf(latencies, done);
+            }));
+        }
+        List<long[]> results = new ArrayList<>();
+        for (Future<long[]> worker : workers) {
+            try {
+                results.add(worker.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new long[0];
+            } catch (ExecutionException e) {
+                log.debug("Ronda de calentamiento fallida: {}", e.getCause().getMessage());
+            }
+        }
+        return results.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+    }
+}
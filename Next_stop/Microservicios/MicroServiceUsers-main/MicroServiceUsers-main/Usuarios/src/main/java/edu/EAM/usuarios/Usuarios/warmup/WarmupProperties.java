@@ -0,0 +1,32 @@
+package edu.EAM.usuarios.Usuarios.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Calentamiento al arrancar (propiedades warmup.*).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warmup")
+public class WarmupProperties {
+
+    private boolean enabled = false;
+
+    // Tope de tiempo: pasado este, el servicio queda listo aunque la latencia no se haya estabilizado
+    private int maxSeconds = 30;
+
+    // Llamadas por ronda y cuántas a la vez
+    private int roundRequests = 200;
+    private int concurrency = 4;
+
+    // Estable cuando el p90 de una ronda varía menos de tolerance-percent respecto de la anterior
+    // durante stable-rounds rondas seguidas
+    private int stableRounds = 3;
+    private int tolerancePercent = 10;
+
+    // Ids reales que se consultan (los primeros de la tabla)
+    private int sampleIds = 20;
+}
@@ -0,0 +1,15 @@
+-- Tabla users en cada base del sharding. Hibernate (ddl-auto=update) solo
+-- actualiza la base 0: si cambia la entidad User, hay que cambiar también esto.
+CREATE TABLE IF NOT EXISTS users (
+    id VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    gender VARCHAR(255),
+    email VARCHAR(255),
+    phone_number VARCHAR(255),
+    street VARCHAR(255),
+    number VARCHAR(255),
+    neighborhood VARCHAR(255),
+    city VARCHAR(255),
+    postal_code VARCHAR(255),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,85 @@
+package edu.EAM.usuarios.Usuarios.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import edu.EAM.usuarios.Usuarios.model.Address;
+import edu.EAM.usuarios.Usuarios.model.User;
+
+/**
+ * Compara tiempo de serialización y bytes en la red de JSON, Smile y CBOR
+ * para una lista de usuarios de tamaño realista. Registra los
+ * resultados en el log y verifica que cada formato lea lo mismo que escribió
+ * y que los binarios ocupen menos que JSON.
+ */
+class SerializationBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SerializationBenchmarkTest.class);
+
+    private static final int USERS = 2_000;
+    private static final int ITERATIONS = 50;
+
+    private List<User> users() {
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User(UUID.nameUUIDFromBytes(("u" + i).getBytes()).toString(),
+                    "Usuario de prueba " + i, i % 2 == 0 ? "F" : "M", "usuario" + i + "@eam.edu.co",
+                    "3001234" + String.format("%03d", i % 1000),
+                    new Address("Carrera 14", String.valueOf(i), "Centro", "Armenia", "630001")));
+        }
+        return users;
+    }
+
+    @Test
+    void compareFormats() throws Exception {
+        List<User> users = users();
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("smile", Jackson2ObjectMapperBuilder.smile().factory(new SmileFactory()).build());
+        mappers.put("cbor", Jackson2ObjectMapperBuilder.cbor().factory(new CBORFactory()).build());
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            byte[] payload = mapper.writeValueAsBytes(users);
+            for (int i = 0; i < ITERATIONS; i++) {  // Calentamiento del JIT
+                mapper.readValue(mapper.writeValueAsBytes(users), new TypeReference<List<User>>() {});
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                mapper.writeValueAsBytes(users);
+            }
+            long write = (System.nanoTime() - start) / ITERATIONS;
+            start = System.nanoTime();
+            List<User> read = null;
+            for (int i = 0; i < ITERATIONS; i++) {
+                read = mapper.readValue(payload, new TypeReference<List<User>>() {});
+            }
+            long parse = (System.nanoTime() - start) / ITERATIONS;
+            assertEquals(USERS, read.size());
+            assertEquals(users.get(USERS - 1).getEmail(), read.get(USERS - 1).getEmail());
+            assertTrue(write > 0 && parse > 0);
+            sizes.put(entry.getKey(), payload.length);
+            log.info("{} {} bytes, escritura {} µs, lectura {} µs",
+                    entry.getKey(), payload.length, write / 1_000, parse / 1_000);
+        }
+        assertTrue(sizes.get("smile") < sizes.get("json"));
+        assertTrue(sizes.get("cbor") < sizes.get("json"));
+    }
+}
@@ -0,0 +1,42 @@
+package edu.EAM.usuarios.Usuarios.patch;
+
+import edu.EAM.usuarios.Usuarios.model.Address;
+import edu.EAM.usuarios.Usuarios.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MergePatchTest {
+
+	@Test
+	void mergesEmbeddedAddressAndJacksonNames() {
+		User user = new User("u1", "Ana", "F", "ana@mail.com", "300", null);
+		Set<String> changed = MergePatch.of(User.class).apply(user, Map.of(
+				"email", "ana@eam.edu.co",
+				"address", Map.of("city", "Armenia")));
+		assertEquals(Set.of("email", "address.city"), changed);
+		assertEquals("ana@eam.edu.co", user.getEmail());
+		assertEquals("Armenia", user.getAddress().getCity());
+	}
+
+	@Test
+	void keepsExistingAddressFields() {
+		User user = new User("u1", "Ana", "F", null, null, new Address("Calle 1", "2", "Centro", "Armenia", "630001"));
+		MergePatch.of(User.class).apply(user, Map.of("address", Map.of("number", "3")));
+		assertEquals("Calle 1", user.getAddress().getStreet());
+		assertEquals("3", user.getAddress().getNumber());
+	}
+
+	@Test
+	void rejectsWrongTypes() {
+		User user = new User();
+		assertThrows(IllegalArgumentException.class,
+				() -> MergePatch.of(User.class).apply(user, Map.of("address", "Calle 1")));
+		assertThrows(IllegalArgumentException.class,
+				() -> MergePatch.of(User.class).apply(user, Map.of("address", Map.of("zip", "1"))));
+	}
+}
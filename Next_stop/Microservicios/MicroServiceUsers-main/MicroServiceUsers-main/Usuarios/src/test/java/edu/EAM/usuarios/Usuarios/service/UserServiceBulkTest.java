@@ -0,0 +1,106 @@
+package edu.EAM.usuarios.Usuarios.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import edu.EAM.usuarios.Usuarios.model.BulkResult;
+import edu.EAM.usuarios.Usuarios.model.BulkResult.Status;
+import edu.EAM.usuarios.Usuarios.model.User;
+import edu.EAM.usuarios.Usuarios.repository.UserRepository;
+
+// Operaciones masivas contra H2 en memoria, con bloques de 2 elementos
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulk;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "bulk.chunk-size=2",
+        "warmup.enabled=false"
+})
+class UserServiceBulkTest {
+
+    @Autowired
+    UserService service;
+
+    @Autowired
+    UserRepository repository;
+
+    @BeforeEach
+    void cleanUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void saveAllCreatesUpdatesAndInsertsUnknownIds() {
+        User existing = service.save(user("Existente"));
+        User renamed = user("Renombrado");
+        renamed.setId(existing.getId());
+        String imported = UUID.randomUUID().toString();
+        User unknown = user("Importado");
+        unknown.setId(imported);
+
+        List<BulkResult> results = service.saveAll(List.of(user("Nuevo A"), renamed, unknown, user("Nuevo B"), user("Nuevo C")));
+
+        assertEquals(List.of(Status.creado, Status.actualizado, Status.creado, Status.creado, Status.creado),
+                results.stream().map(BulkResult::status).toList());
+        assertEquals(List.of(0, 1, 2, 3, 4), results.stream().map(BulkResult::index).toList());
+        assertEquals(imported, results.get(2).id());
+        assertEquals("Renombrado", service.findById(existing.getId()).getName());
+        assertEquals("Importado", service.findById(imported).getName());
+        assertEquals(5, repository.count());
+    }
+
+    @Test
+    void failingItemOnlyFailsItself() {
+        // El nombre no cabe en la columna: falla el bloque [2, 3] y se repite elemento a elemento
+        List<BulkResult> results = service.saveAll(List.of(
+                user("Uno"), user("Dos"), user("x".repeat(300)), user("Cuatro"), user("Cinco")));
+
+        assertEquals(List.of(Status.creado, Status.creado, Status.error, Status.creado, Status.creado),
+                results.stream().map(BulkResult::status).toList());
+        assertNotNull(results.get(2).error());
+        assertNull(results.get(2).id());
+        assertEquals(4, repository.count());
+    }
+
+    @Test
+    void deleteAllReportsEachId() {
+        String a = service.save(user("A")).getId();
+        String b = service.save(user("B")).getId();
+        String c = service.save(user("C")).getId();
+
+        List<BulkResult> results = service.deleteAllById(List.of(a, "no-existe", c));
+
+        assertEquals(List.of(Status.eliminado, Status.no_encontrado, Status.eliminado),
+                results.stream().map(BulkResult::status).toList());
+        assertEquals(List.of(b), repository.findAll().stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findAllByIdKeepsRequestOrderAcrossChunks() {
+        List<String> ids = service.saveAll(List.of(user("A"), user("B"), user("C"), user("D"), user("E"))).stream()
+                .map(BulkResult::id)
+                .toList();
+
+        List<String> requested = List.of(ids.get(4), "no-existe", ids.get(0), ids.get(2), ids.get(0), ids.get(3));
+        assertEquals(List.of("E", "A", "C", "D"),
+                service.findAllById(requested).stream().map(User::getName).toList());
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name.replace(' ', '.') + "@correo.com");
+        return user;
+    }
+}
@@ -0,0 +1,143 @@
+package edu.EAM.usuarios.Usuarios.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import edu.EAM.usuarios.Usuarios.model.BulkResult;
+import edu.EAM.usuarios.Usuarios.model.User;
+import edu.EAM.usuarios.Usuarios.service.UserService;
+
+// Dos bases H2 en memoria hacen de shards
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:shard0;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "sharding.enabled=true",
+        "sharding.shards[0].url=jdbc:h2:mem:shard1;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+        "sharding.shards[0].username=sa",
+        "sharding.shards[0].password=",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+class ShardingTest {
+
+    @Autowired
+    UserService service;
+
+    @Autowired
+    ShardRoutingDataSource routing;
+
+    @Test
+    void routesByIdAndMergesAcrossShards() throws SQLException {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ids.add(service.save(user("Usuario " + i)).getId());
+        }
+        // Cada fila está solo en la base que le corresponde, y las dos bases tienen filas
+        for (String id : ids) {
+            int shard = ShardHash.shardFor(id, 2);
+            assertEquals(1, count(routing.getShards().get(shard), id));
+            assertEquals(0, count(routing.getShards().get(1 - shard), id));
+        }
+        assertTrue(countAll(routing.getShards().get(0)) > 0 && countAll(routing.getShards().get(1)) > 0);
+
+        assertEquals(40, service.findAll().size());
+        assertEquals("Usuario 7", service.findById(ids.get(7)).getName());
+        List<String> sorted = ids.stream().sorted().toList();
+        assertEquals(sorted.subList(10, 20), service.findAll(1, 10).stream().map(User::getId).toList());
+        assertEquals(11, service.findByName("usuario 1").size());  // 1 y 10..19
+        assertEquals(11, service.findAllById(ids.subList(0, 11)).size());
+
+        service.patch(ids.get(3), Map.of("gender", "F"));
+        assertEquals("F", service.findById(ids.get(3)).getGender());
+        service.deleteById(ids.get(3));
+        assertNull(service.findById(ids.get(3)));
+
+        User renamed = user("Renombrado");
+        renamed.setId(ids.get(4));
+        List<BulkResult> results = service.saveAll(List.of(user("Nuevo A"), renamed, user("Nuevo B")));
+        assertEquals(List.of(BulkResult.Status.creado, BulkResult.Status.actualizado, BulkResult.Status.creado),
+                results.stream().map(BulkResult::status).toList());
+        assertEquals("Renombrado", service.findById(ids.get(4)).getName());
+        assertEquals(41, service.findAll().size());
+    }
+
+    @Test
+    void reshardMovesRowsToTheNewShard() throws SQLException {
+        List<DataSource> shards = new ArrayList<>();
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("sharding/users-schema.sql"));
+        for (int i = 0; i < 3; i++) {
+            DataSource shard = new DriverManagerDataSource("jdbc:h2:mem:reshard" + i + ";MODE=MariaDB;DB_CLOSE_DELAY=-1", "sa", "");
+            DatabasePopulatorUtils.execute(schema, shard);
+            shards.add(shard);
+        }
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            execute(shards.get(ShardHash.shardFor(id, 2)), "INSERT INTO users (id, name) VALUES ('" + id + "', 'u" + i + "')");
+        }
+
+        int moved = ReshardTool.reshard(shards, 2, 50);
+
+        assertTrue(moved > 0 && moved < 200);  // ~1/3 de las filas
+        assertEquals(moved, countAll(shards.get(2)));
+        for (String id : ids) {
+            assertEquals(1, count(shards.get(ShardHash.shardFor(id, 3)), id));
+        }
+        assertEquals(300, countAll(shards.get(0)) + countAll(shards.get(1)) + countAll(shards.get(2)));
+        assertEquals(0, ReshardTool.reshard(shards, 2, 50));  // Repetirla no mueve nada más
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name.replace(' ', '.') + "@correo.com");
+        return user;
+    }
+
+    private static int count(DataSource shard, String id) throws SQLException {
+        return query(shard, "SELECT COUNT(*) FROM users WHERE id = '" + id + "'");
+    }
+
+    private static int countAll(DataSource shard) throws SQLException {
+        return query(shard, "SELECT COUNT(*) FROM users");
+    }
+
+    private static int query(DataSource shard, String sql) throws SQLException {
+        try (Connection connection = shard.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            assertNotNull(rs);
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void execute(DataSource shard, String sql) throws SQLException {
+        try (Connection connection = shard.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}